@@ -0,0 +1,109 @@
+package org.qubership.colly;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a circuit breaker per endpoint: Kubernetes API host or monitoring URI.
+ * <p>
+ * After {@code colly.circuit-breaker.failure-threshold} failures in a row the circuit is opened and requests to the endpoint
+ * are rejected without network calls for {@code colly.circuit-breaker.open-duration}. Then one trial request is allowed:
+ * its success closes the circuit, its failure opens it again.
+ */
+@ApplicationScoped
+public class CircuitBreakerRegistry {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    @ConfigProperty(name = "colly.circuit-breaker.failure-threshold")
+    int failureThreshold;
+
+    @ConfigProperty(name = "colly.circuit-breaker.open-duration")
+    Duration openDuration;
+
+    /**
+     * @return true if a request to the endpoint is allowed, false if the circuit of the endpoint is open
+     */
+    public boolean tryAcquire(String endpoint) {
+        if (endpoint == null) {
+            return true;
+        }
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(endpoint, key -> new CircuitBreaker());
+        synchronized (circuitBreaker) {
+            if (circuitBreaker.state == State.CLOSED) {
+                return true;
+            }
+            Instant now = Instant.now();
+            if (now.isBefore(circuitBreaker.openUntil)) {
+                return false;
+            }
+            //other requests are rejected until the trial is completed, but not longer than open duration in case its result is lost
+            Log.info("Circuit breaker of " + endpoint + " is half-open. Trial request is allowed.");
+            circuitBreaker.state = State.HALF_OPEN;
+            circuitBreaker.openUntil = now.plus(openDuration);
+            return true;
+        }
+    }
+
+    public void recordSuccess(String endpoint) {
+        if (endpoint == null) {
+            return;
+        }
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(endpoint, key -> new CircuitBreaker());
+        synchronized (circuitBreaker) {
+            if (circuitBreaker.state != State.CLOSED) {
+                Log.info("Circuit breaker of " + endpoint + " is closed.");
+            }
+            circuitBreaker.state = State.CLOSED;
+            circuitBreaker.consecutiveFailures = 0;
+        }
+    }
+
+    public void recordFailure(String endpoint) {
+        if (endpoint == null) {
+            return;
+        }
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(endpoint, key -> new CircuitBreaker());
+        synchronized (circuitBreaker) {
+            circuitBreaker.consecutiveFailures++;
+            if (circuitBreaker.state == State.HALF_OPEN || circuitBreaker.consecutiveFailures >= failureThreshold) {
+                circuitBreaker.state = State.OPEN;
+                circuitBreaker.openUntil = Instant.now().plus(openDuration);
+                Log.warn("Circuit breaker of " + endpoint + " is open until " + circuitBreaker.openUntil
+                        + " after " + circuitBreaker.consecutiveFailures + " failures in a row.");
+            }
+        }
+    }
+
+    /**
+     * @return state of the circuit of the endpoint, null if the endpoint is not defined
+     */
+    public State getState(String endpoint) {
+        if (endpoint == null) {
+            return null;
+        }
+        CircuitBreaker circuitBreaker = circuitBreakers.get(endpoint);
+        if (circuitBreaker == null) {
+            return State.CLOSED;
+        }
+        synchronized (circuitBreaker) {
+            return circuitBreaker.state;
+        }
+    }
+
+    private static class CircuitBreaker {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private Instant openUntil;
+    }
+}
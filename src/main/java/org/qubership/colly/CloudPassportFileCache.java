@@ -0,0 +1,81 @@
+package org.qubership.colly;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps parsed content of Cloud Passport files keyed by the git blob id of the file content,
+ * so only new or changed files are deserialized.
+ */
+public class CloudPassportFileCache {
+
+    private final Map<CacheKey, Object> entries = new ConcurrentHashMap<>();
+    private final Set<CacheKey> usedKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    <T> T get(Path file, Class<T> type, FileParser<T> parser) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error during read file: " + file, e);
+        }
+        CacheKey key = new CacheKey(type, blobId(content));
+        usedKeys.add(key);
+        Object cached = entries.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return type.cast(cached);
+        }
+        misses.incrementAndGet();
+        T parsed;
+        try {
+            parsed = parser.parse(content);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error during read file: " + file, e);
+        }
+        if (parsed != null) {
+            entries.put(key, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Drops entries that were not requested since the previous invocation, so files removed from the repository do not stay in memory.
+     */
+    void evictUnused() {
+        entries.keySet().retainAll(usedKeys);
+        usedKeys.clear();
+    }
+
+    Stats stats() {
+        return new Stats(hits.get(), misses.get(), entries.size());
+    }
+
+    private static ObjectId blobId(byte[] content) {
+        try (ObjectInserter.Formatter formatter = new ObjectInserter.Formatter()) {
+            return formatter.idFor(Constants.OBJ_BLOB, content);
+        }
+    }
+
+    @FunctionalInterface
+    interface FileParser<T> {
+        T parse(byte[] content) throws IOException;
+    }
+
+    private record CacheKey(Class<?> type, ObjectId blobId) {
+    }
+
+    public record Stats(long hits, long misses, int size) {
+    }
+}
@@ -2,6 +2,7 @@
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -14,15 +15,15 @@
 import org.qubership.colly.cloudpassport.envgen.*;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @ApplicationScoped
 public class CloudPassportLoader {
@@ -30,7 +31,13 @@ public class CloudPassportLoader {
     public static final String ENV_DEFINITION_YML_FILENAME = "env_definition.yml";
     public static final String NAMESPACE_YML_FILENAME = "namespace.yml";
     public static final String MONITORING_TYPE_VICTORIA_DB = "VictoriaDB";
-    private static final String CLOUD_PASSPORT_FOLDER = "cloud-passport";
+    static final String CLOUD_PASSPORT_FOLDER = "cloud-passport";
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+    private static final ObjectReader CLOUD_PASSPORT_DATA_READER = YAML_MAPPER.readerFor(CloudPassportData.class);
+    private static final ObjectReader ENV_DEFINITION_READER = YAML_MAPPER.readerFor(EnvDefinition.class);
+    private static final ObjectReader NAMESPACE_READER = YAML_MAPPER.readerFor(Namespace.class);
+    private static final ObjectReader TREE_READER = YAML_MAPPER.reader();
+
     @Inject
     GitService gitService;
 
@@ -40,72 +47,124 @@ public class CloudPassportLoader {
     @ConfigProperty(name = "env.instances.repo")
     Optional<List<String>> gitRepoUrls;
 
+    @ConfigProperty(name = "colly.cloud-passport-loader.parallelism")
+    int parallelism;
+
+    private final CloudPassportFileCache fileCache = new CloudPassportFileCache();
+    private Map<String, String> lastRepositoryRevisions = Map.of();
+    private List<CloudPassport> lastCloudPassports;
+
+    public synchronized List<CloudPassport> loadCloudPassports() {
+        Map<String, String> repositoryRevisions = syncGitRepositories();
+        if (!repositoryRevisions.isEmpty() && repositoryRevisions.equals(lastRepositoryRevisions) && lastCloudPassports != null) {
+            Log.info("Git repositories are not changed since the last run " + repositoryRevisions + ". Skipping parsing of Cloud Passports.");
+            return lastCloudPassports;
+        }
+        List<CloudPassport> cloudPassports = parseCloudPassports();
+        lastRepositoryRevisions = repositoryRevisions;
+        lastCloudPassports = cloudPassports;
+        return cloudPassports;
+    }
+
+    public synchronized Map<String, String> getRepositoryRevisions() {
+        return lastRepositoryRevisions;
+    }
+
+    public CloudPassportFileCache.Stats getFileCacheStats() {
+        return fileCache.stats();
+    }
 
-    public List<CloudPassport> loadCloudPassports() {
-        cloneGitRepository();
+    private List<CloudPassport> parseCloudPassports() {
         Path dir = Paths.get(cloudPassportFolder);
         if (!dir.toFile().exists()) {
             return Collections.emptyList();
         }
-        try (Stream<Path> paths = Files.walk(dir)) {
-            return paths.filter(Files::isDirectory)
-                    .map(path -> path.resolve(CLOUD_PASSPORT_FOLDER))
-                    .filter(Files::isDirectory)
-                    .map(path -> processYamlFilesInClusterFolder(path, path.getParent()))
-                    .filter(Objects::nonNull)
-                    .toList();
+        try {
+            CloudPassportRepositoryIndex index = CloudPassportRepositoryIndex.build(dir);
+            Log.info("Cloud Passport repository is indexed. Clusters count = " + index.clusters().size() + ", visited directories = " + index.visitedDirectories());
+            return parseClusterFolders(index.clusters());
         } catch (Exception e) {
             Log.error("Error loading CloudPassports from " + dir, e);
+        } finally {
+            fileCache.evictUnused();
+            Log.info("Cloud Passport file cache: " + fileCache.stats());
         }
         return Collections.emptyList();
     }
 
-    private void cloneGitRepository() {
-        if (gitRepoUrls.isEmpty()) {
-            Log.error("gitRepoUrl parameter is not set. Skipping repository cloning.");
-            return;
+    private List<CloudPassport> parseClusterFolders(List<CloudPassportRepositoryIndex.ClusterFolder> clusterFolders) {
+        int threadsCount = Math.max(1, Math.min(parallelism, clusterFolders.size()));
+        try (ExecutorService executor = Executors.newFixedThreadPool(threadsCount, Thread.ofPlatform().name("cloud-passport-parser-", 0).factory())) {
+            List<CompletableFuture<CloudPassport>> futures = clusterFolders.stream()
+                    .map(clusterFolder -> CompletableFuture.supplyAsync(() -> processYamlFilesInClusterFolder(clusterFolder), executor))
+                    .toList();
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .filter(Objects::nonNull)
+                    .toList();
         }
-        File directory = new File(cloudPassportFolder);
+    }
 
-        try {
-            if (directory.exists()) {
-                FileUtils.deleteDirectory(directory);
-            }
-        } catch (IOException e) {
-            Log.error("Impossible to start git cloning. Failed to clean directory: " + cloudPassportFolder, e);
-            return;
+    private Map<String, String> syncGitRepositories() {
+        if (gitRepoUrls.isEmpty()) {
+            Log.error("gitRepoUrl parameter is not set. Skipping repository cloning.");
+            return Map.of();
         }
-
         List<String> gitRepoUrlValues = gitRepoUrls.get();
+        removeStaleRepositories(gitRepoUrlValues.size());
+
+        Map<String, String> repositoryRevisions = new LinkedHashMap<>();
         int index = 1;
         for (String gitRepoUrlValue : gitRepoUrlValues) {
-            gitService.cloneRepository(gitRepoUrlValue, new File(cloudPassportFolder + "/" + index));
+            String head = gitService.cloneOrUpdateRepository(gitRepoUrlValue, new File(cloudPassportFolder + "/" + index));
+            repositoryRevisions.put(gitRepoUrlValue, head);
             index++;
         }
+        return repositoryRevisions;
+    }
+
+    private void removeStaleRepositories(int repositoriesCount) {
+        File[] repositoryFolders = new File(cloudPassportFolder).listFiles();
+        if (repositoryFolders == null) {
+            return;
+        }
+        Set<String> expectedFolders = new HashSet<>();
+        for (int index = 1; index <= repositoriesCount; index++) {
+            expectedFolders.add(String.valueOf(index));
+        }
+        for (File repositoryFolder : repositoryFolders) {
+            if (expectedFolders.contains(repositoryFolder.getName())) {
+                continue;
+            }
+            try {
+                Log.info("Removing folder " + repositoryFolder + " that does not belong to any configured repository");
+                FileUtils.forceDelete(repositoryFolder);
+            } catch (IOException e) {
+                Log.error("Failed to remove folder " + repositoryFolder, e);
+            }
+        }
     }
 
-    private CloudPassport processYamlFilesInClusterFolder(Path cloudPassportFolderPath, Path clusterFolderPath) {
+    private CloudPassport processYamlFilesInClusterFolder(CloudPassportRepositoryIndex.ClusterFolder clusterFolder) {
+        Path cloudPassportFolderPath = clusterFolder.cloudPassportFolder();
         Log.info("Loading Cloud Passport from " + cloudPassportFolderPath);
-        String clusterName = clusterFolderPath.getFileName().toString();
-        Set<CloudPassportEnvironment> environments = processEnvironmentsInClusterFolder(clusterFolderPath);
+        String clusterName = clusterFolder.name();
+        Set<CloudPassportEnvironment> environments = processEnvironmentsInClusterFolder(clusterFolder);
         CloudPassportData cloudPassportData;
-        try (Stream<Path> paths = Files.list(cloudPassportFolderPath)) {
-            cloudPassportData = paths
-                    .filter(path -> path.getFileName().toString().equals(clusterName + ".yml"))
+        try {
+            cloudPassportData = clusterFolder.cloudPassportFile(clusterName + ".yml")
                     .map(this::parseCloudPassportDataFile)
-                    .findFirst().orElseThrow();
+                    .orElseThrow();
         } catch (Exception e) {
             Log.error("Error loading Cloud Passport from " + cloudPassportFolderPath, e);
             return null;
         }
 
         String token;
-        try (Stream<Path> credsPath = Files.list(cloudPassportFolderPath)) {
-            token = credsPath
-                    .filter(path -> path.getFileName().toString().equals(clusterName + "-creds.yml"))
+        try {
+            token = clusterFolder.cloudPassportFile(clusterName + "-creds.yml")
                     .map(path -> parseTokenFromCredsFile(path, cloudPassportData))
-                    .findFirst().orElseThrow();
-
+                    .orElseThrow();
         } catch (Exception e) {
             Log.error("Error loading Cloud Passport from " + cloudPassportFolderPath, e);
             return null;
@@ -126,78 +185,47 @@ private CloudPassport processYamlFilesInClusterFolder(Path cloudPassportFolderPa
         return new CloudPassport(clusterName, token, cloudApiHost, environments, monitoringUri);
     }
 
-    private Set<CloudPassportEnvironment> processEnvironmentsInClusterFolder(Path clusterFolderPath) {
-        try (Stream<Path> paths = Files.walk(clusterFolderPath)) {
-            return paths.filter(Files::isDirectory)
-                    .map(path -> path.resolve(ENV_DEFINITION_YML_FILENAME))
-                    .filter(Files::isRegularFile)
+    private Set<CloudPassportEnvironment> processEnvironmentsInClusterFolder(CloudPassportRepositoryIndex.ClusterFolder clusterFolder) {
+        try {
+            return clusterFolder.environments().stream()
                     .map(this::processEnvDefinition)
                     .collect(Collectors.toSet());
         } catch (Exception e) {
-            Log.error("Error loading Environments from " + clusterFolderPath, e);
+            Log.error("Error loading Environments from " + clusterFolder.path(), e);
         }
         return Collections.emptySet();
     }
 
-    private CloudPassportEnvironment processEnvDefinition(Path envDevinitionPath) {
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-        Path environmentPath = envDevinitionPath.getParent().getParent();
-        List<CloudPassportNamespace> namespaces = Collections.emptyList();
-        try (Stream<Path> paths = Files.walk(environmentPath)) {
-            namespaces = paths.map(path -> path.resolve(NAMESPACE_YML_FILENAME))
-                    .filter(Files::isRegularFile)
-                    .sorted()
-                    .map(this::parseNamespaceFile)
-                    .toList();
-        } catch (IOException e) {
-            Log.error("Error loading environment name from " + environmentPath, e);
-        }
-        try (FileInputStream inputStream = new FileInputStream(envDevinitionPath.toFile())) {
-            EnvDefinition envDefinition = mapper.readValue(inputStream, EnvDefinition.class);
-            Inventory inventory = envDefinition.getInventory();
-            Log.info("Processing environment " + inventory.getEnvironmentName());
-            return new CloudPassportEnvironment(inventory.getEnvironmentName(), inventory.getDescription(), namespaces);
-        } catch (IOException e) {
-            throw new IllegalStateException("Error during read file: " + envDevinitionPath, e);
-        }
+    private CloudPassportEnvironment processEnvDefinition(CloudPassportRepositoryIndex.EnvironmentFolder environmentFolder) {
+        List<CloudPassportNamespace> namespaces = environmentFolder.namespaceFiles().stream()
+                .map(this::parseNamespaceFile)
+                .toList();
+        Path envDefinitionPath = environmentFolder.envDefinitionFile();
+        EnvDefinition envDefinition = fileCache.get(envDefinitionPath, EnvDefinition.class, ENV_DEFINITION_READER::readValue);
+        Inventory inventory = envDefinition.getInventory();
+        Log.info("Processing environment " + inventory.getEnvironmentName());
+        return new CloudPassportEnvironment(inventory.getEnvironmentName(), inventory.getDescription(), namespaces);
     }
 
     private CloudPassportNamespace parseNamespaceFile(Path namespaceFilePath) {
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-        try (FileInputStream inputStream = new FileInputStream(namespaceFilePath.toFile())) {
-            Namespace namespace = mapper.readValue(inputStream, Namespace.class);
-            Log.info("Processing namespace " + namespace.getName());
-            return new CloudPassportNamespace(namespace.getName());
-        } catch (IOException e) {
-            throw new IllegalStateException("Error during read file: " + namespaceFilePath, e);
-        }
+        Namespace namespace = fileCache.get(namespaceFilePath, Namespace.class, NAMESPACE_READER::readValue);
+        Log.info("Processing namespace " + namespace.getName());
+        return new CloudPassportNamespace(namespace.getName());
     }
 
     String parseTokenFromCredsFile(Path path, CloudPassportData cloudPassportData) {
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-        try (FileInputStream inputStream = new FileInputStream(path.toFile())) {
-            JsonNode jsonNode = mapper.readTree(inputStream);
-            JsonNode tokenNode = jsonNode.get(cloudPassportData.getCloud().getCloudDeployToken());
-            if (tokenNode != null) {
-                return tokenNode.findValue("secret").asText();
-            }
-
-        } catch (IOException e) {
-            throw new IllegalStateException("Error during read file: " + path, e);
+        JsonNode jsonNode = fileCache.get(path, JsonNode.class, TREE_READER::readTree);
+        JsonNode tokenNode = jsonNode == null ? null : jsonNode.get(cloudPassportData.getCloud().getCloudDeployToken());
+        if (tokenNode != null) {
+            return tokenNode.findValue("secret").asText();
         }
         throw new IllegalArgumentException("Can't read cloud passport data creds from " + path);
     }
 
     CloudPassportData parseCloudPassportDataFile(Path filePath) {
-
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-        try (FileInputStream inputStream = new FileInputStream(filePath.toFile())) {
-            CloudPassportData data = mapper.readValue(inputStream, CloudPassportData.class);
-            if (data != null && data.getCloud() != null) {
-                return data;
-            }
-        } catch (IOException e) {
-            throw new IllegalStateException("Error during read file: " + filePath, e);
+        CloudPassportData data = fileCache.get(filePath, CloudPassportData.class, CLOUD_PASSPORT_DATA_READER::readValue);
+        if (data != null && data.getCloud() != null) {
+            return data;
         }
         throw new IllegalArgumentException("Can't read cloud passport data from " + filePath);
     }
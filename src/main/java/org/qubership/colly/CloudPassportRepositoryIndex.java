@@ -0,0 +1,140 @@
+package org.qubership.colly;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+import static org.qubership.colly.CloudPassportLoader.CLOUD_PASSPORT_FOLDER;
+import static org.qubership.colly.CloudPassportLoader.ENV_DEFINITION_YML_FILENAME;
+import static org.qubership.colly.CloudPassportLoader.NAMESPACE_YML_FILENAME;
+
+/**
+ * Index of clusters, environments and namespace files of a Cloud Passport repository built with a single traversal of the folder tree.
+ * <p>
+ * A cluster is a folder that contains the {@code cloud-passport} folder. Every {@code env_definition.yml} inside a cluster folder
+ * defines an environment rooted two levels above the file, and every {@code namespace.yml} under the environment root belongs to it.
+ */
+final class CloudPassportRepositoryIndex {
+
+    private final List<ClusterFolder> clusters;
+    private final int visitedDirectories;
+
+    private CloudPassportRepositoryIndex(List<ClusterFolder> clusters, int visitedDirectories) {
+        this.clusters = clusters;
+        this.visitedDirectories = visitedDirectories;
+    }
+
+    static CloudPassportRepositoryIndex build(Path root) throws IOException {
+        TreeCollector collector = new TreeCollector(root);
+        Files.walkFileTree(root, collector);
+
+        Map<Path, List<Path>> namespaceFilesByEnvironmentRoot = new HashMap<>();
+        for (Path envDefinitionFile : collector.envDefinitionFiles) {
+            Path environmentRoot = envDefinitionFile.getParent().getParent();
+            namespaceFilesByEnvironmentRoot.put(environmentRoot, new ArrayList<>());
+        }
+        for (Path namespaceFile : collector.namespaceFiles) {
+            for (Path folder = namespaceFile.getParent(); folder != null && folder.startsWith(root); folder = folder.getParent()) {
+                List<Path> namespaceFiles = namespaceFilesByEnvironmentRoot.get(folder);
+                if (namespaceFiles != null) {
+                    namespaceFiles.add(namespaceFile);
+                }
+            }
+        }
+        namespaceFilesByEnvironmentRoot.values().forEach(Collections::sort);
+
+        Map<Path, List<EnvironmentFolder>> environmentsByClusterFolder = new HashMap<>();
+        collector.clusterFolders.forEach(clusterFolder -> environmentsByClusterFolder.put(clusterFolder, new ArrayList<>()));
+        for (Path envDefinitionFile : collector.envDefinitionFiles) {
+            EnvironmentFolder environment = new EnvironmentFolder(envDefinitionFile,
+                    List.copyOf(namespaceFilesByEnvironmentRoot.get(envDefinitionFile.getParent().getParent())));
+            for (Path folder = envDefinitionFile.getParent(); folder != null && folder.startsWith(root); folder = folder.getParent()) {
+                List<EnvironmentFolder> environments = environmentsByClusterFolder.get(folder);
+                if (environments != null) {
+                    environments.add(environment);
+                }
+            }
+        }
+
+        List<ClusterFolder> clusters = collector.clusterFolders.stream()
+                .sorted()
+                .map(clusterFolder -> new ClusterFolder(clusterFolder,
+                        Map.copyOf(collector.cloudPassportFiles.getOrDefault(clusterFolder.resolve(CLOUD_PASSPORT_FOLDER), Map.of())),
+                        List.copyOf(environmentsByClusterFolder.get(clusterFolder))))
+                .toList();
+        return new CloudPassportRepositoryIndex(clusters, collector.visitedDirectories);
+    }
+
+    List<ClusterFolder> clusters() {
+        return clusters;
+    }
+
+    /**
+     * Every directory of the tree is visited once, so this is the number of directories under the root including the root.
+     */
+    int visitedDirectories() {
+        return visitedDirectories;
+    }
+
+    record ClusterFolder(Path path, Map<String, Path> cloudPassportFiles, List<EnvironmentFolder> environments) {
+
+        String name() {
+            return path.getFileName().toString();
+        }
+
+        Path cloudPassportFolder() {
+            return path.resolve(CLOUD_PASSPORT_FOLDER);
+        }
+
+        Optional<Path> cloudPassportFile(String fileName) {
+            return Optional.ofNullable(cloudPassportFiles.get(fileName));
+        }
+    }
+
+    record EnvironmentFolder(Path envDefinitionFile, List<Path> namespaceFiles) {
+    }
+
+    private static class TreeCollector extends SimpleFileVisitor<Path> {
+        private final Path root;
+        private final Set<Path> clusterFolders = new HashSet<>();
+        private final List<Path> envDefinitionFiles = new ArrayList<>();
+        private final List<Path> namespaceFiles = new ArrayList<>();
+        private final Map<Path, Map<String, Path>> cloudPassportFiles = new HashMap<>();
+        private int visitedDirectories;
+
+        private TreeCollector(Path root) {
+            this.root = root;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            visitedDirectories++;
+            if (!dir.equals(root) && CLOUD_PASSPORT_FOLDER.equals(dir.getFileName().toString())) {
+                clusterFolders.add(dir.getParent());
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (!attrs.isRegularFile()) {
+                return FileVisitResult.CONTINUE;
+            }
+            String fileName = file.getFileName().toString();
+            if (ENV_DEFINITION_YML_FILENAME.equals(fileName) && file.getParent().getParent() != null) {
+                envDefinitionFiles.add(file);
+            } else if (NAMESPACE_YML_FILENAME.equals(fileName)) {
+                namespaceFiles.add(file);
+            }
+            Path parent = file.getParent();
+            if (CLOUD_PASSPORT_FOLDER.equals(parent.getFileName().toString())) {
+                cloudPassportFiles.computeIfAbsent(parent, folder -> new HashMap<>()).put(fileName, file);
+            }
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.qubership.colly;
+
+import org.qubership.colly.db.data.Environment;
+import org.qubership.colly.db.data.Namespace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Difference between the state of a cluster stored in the db and the state loaded from the cluster.
+ * New entities are kept to be persisted together, updated and unchanged entities are only counted:
+ * they are managed by the persistence context and only modified fields of updated ones are written on flush.
+ */
+final class ClusterChangeSet {
+
+    private final List<Environment> insertedEnvironments = new ArrayList<>();
+    private final List<Namespace> insertedNamespaces = new ArrayList<>();
+    private int updatedEnvironments;
+    private int unchangedEnvironments;
+    private int updatedNamespaces;
+    private int unchangedNamespaces;
+
+    void environmentInserted(Environment environment) {
+        insertedEnvironments.add(environment);
+    }
+
+    void environmentReconciled(boolean updated) {
+        if (updated) {
+            updatedEnvironments++;
+        } else {
+            unchangedEnvironments++;
+        }
+    }
+
+    void namespaceInserted(Namespace namespace) {
+        insertedNamespaces.add(namespace);
+    }
+
+    void namespaceReconciled(boolean updated) {
+        if (updated) {
+            updatedNamespaces++;
+        } else {
+            unchangedNamespaces++;
+        }
+    }
+
+    boolean isEmpty() {
+        return insertedEnvironments.isEmpty() && insertedNamespaces.isEmpty() && updatedEnvironments == 0 && updatedNamespaces == 0;
+    }
+
+    List<Environment> insertedEnvironments() {
+        return insertedEnvironments;
+    }
+
+    List<Namespace> insertedNamespaces() {
+        return insertedNamespaces;
+    }
+
+    @Override
+    public String toString() {
+        return "environments: inserted=" + insertedEnvironments.size() + ", updated=" + updatedEnvironments + ", unchanged=" + unchangedEnvironments
+                + "; namespaces: inserted=" + insertedNamespaces.size() + ", updated=" + updatedNamespaces + ", unchanged=" + unchangedNamespaces;
+    }
+}
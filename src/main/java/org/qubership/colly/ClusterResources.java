@@ -0,0 +1,24 @@
+package org.qubership.colly;
+
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1Namespace;
+import org.qubership.colly.cloudpassport.CloudPassport;
+import org.qubership.colly.cloudpassport.CloudPassportEnvironment;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Resources of a cluster fetched from Kubernetes, ready to be applied to the db.
+ *
+ * @param environments       Cloud Passport environments to apply
+ * @param synced             false if namespaces could not be loaded from the cluster
+ * @param namespaces         Kubernetes namespaces by name
+ * @param versionsConfigMaps versions config maps by namespace name
+ */
+record ClusterResources(CloudPassport cloudPassport,
+                        Collection<CloudPassportEnvironment> environments,
+                        boolean synced,
+                        Map<String, V1Namespace> namespaces,
+                        Map<String, V1ConfigMap> versionsConfigMaps) {
+}
@@ -1,15 +1,13 @@
 package org.qubership.colly;
 
-import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
 import io.kubernetes.client.openapi.models.*;
-import io.kubernetes.client.util.ClientBuilder;
-import io.kubernetes.client.util.credentials.AccessTokenAuthentication;
 import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.qubership.colly.cloudpassport.CloudPassport;
 import org.qubership.colly.cloudpassport.CloudPassportEnvironment;
@@ -21,15 +19,20 @@
 import org.qubership.colly.db.data.Environment;
 import org.qubership.colly.db.data.EnvironmentType;
 import org.qubership.colly.db.data.Namespace;
-import org.qubership.colly.monitoring.MonitoringService;
 
-import java.io.IOException;
-import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
+
 
 @ApplicationScoped
 public class ClusterResourcesLoader {
@@ -44,7 +47,11 @@ public class ClusterResourcesLoader {
     private final NamespaceRepository namespaceRepository;
     private final ClusterRepository clusterRepository;
     private final EnvironmentRepository environmentRepository;
-    private final MonitoringService monitoringService;
+    private final KubernetesClientRegistry kubernetesClientRegistry;
+    private final ClusterSyncExecutor clusterSyncExecutor;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Event<EnvironmentsChanged> environmentsChanged;
+    private final Map<String, ReentrantLock> clusterLocks = new ConcurrentHashMap<>();
 
     @ConfigProperty(name = "colly.config-map.versions.name")
     String versionsConfigMapName;
@@ -52,127 +59,324 @@ public class ClusterResourcesLoader {
     @ConfigProperty(name = "colly.config-map.versions.data-field-name")
     String versionsConfigMapDataFieldName;
 
+    @ConfigProperty(name = "colly.config-map.versions.cluster-wide-listing")
+    boolean clusterWideVersionsListing;
+
+    @ConfigProperty(name = "colly.config-map.versions.page-size")
+    int versionsConfigMapPageSize;
+
+    @ConfigProperty(name = "colly.cluster-resource-loader.cluster-parallelism")
+    int clusterParallelism;
+
     @Inject
     public ClusterResourcesLoader(NamespaceRepository namespaceRepository,
                                   ClusterRepository clusterRepository,
                                   EnvironmentRepository environmentRepository,
-                                  MonitoringService monitoringService) {
+                                  KubernetesClientRegistry kubernetesClientRegistry,
+                                  ClusterSyncExecutor clusterSyncExecutor,
+                                  CircuitBreakerRegistry circuitBreakerRegistry,
+                                  Event<EnvironmentsChanged> environmentsChanged) {
         this.namespaceRepository = namespaceRepository;
         this.clusterRepository = clusterRepository;
         this.environmentRepository = environmentRepository;
-        this.monitoringService = monitoringService;
+        this.kubernetesClientRegistry = kubernetesClientRegistry;
+        this.clusterSyncExecutor = clusterSyncExecutor;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.environmentsChanged = environmentsChanged;
     }
 
 
-    @Transactional
-    public void loadClusterResources(CloudPassport cloudPassport) {
-        AccessTokenAuthentication authentication = new AccessTokenAuthentication(cloudPassport.token());
+    /**
+     * Fetches resources of the cluster without a db transaction and then applies them to the db in a short transaction,
+     * so a db connection is not held during network calls to the cluster. Monitoring data is refreshed separately by {@link MonitoringRefresher}.
+     */
+    public ClusterSyncResult loadClusterResources(CloudPassport cloudPassport) {
+        String apiHost = cloudPassport.cloudApiHost();
+        boolean apiAllowed = circuitBreakerRegistry.tryAcquire(apiHost);
+        if (!apiAllowed) {
+            Log.warn("Circuit breaker of " + apiHost + " is open. Cluster " + cloudPassport.name() + " is not requested and marked as not synced.");
+        }
+        ClusterSyncResult result;
         try {
-            ApiClient client = ClientBuilder.standard()
-                    .setAuthentication(authentication)
-                    .setBasePath(cloudPassport.cloudApiHost())
-                    .setVerifyingSsl(false)
-                    .build();
-            CoreV1Api coreV1Api = new CoreV1Api(client);
-            loadClusterResources(coreV1Api, cloudPassport);
-        } catch (RuntimeException | IOException e) {
+            CoreV1Api coreV1Api = apiAllowed ? new CoreV1Api(kubernetesClientRegistry.getClient(cloudPassport)) : null;
+            result = loadClusterResources(coreV1Api, cloudPassport);
+        } catch (RuntimeException e) {
             Log.error("Can't load resources from cluster " + cloudPassport.name(), e);
+            result = ClusterSyncResult.FAILED;
         }
+        if (!apiAllowed) {
+            return ClusterSyncResult.FAILED;
+        }
+        if (result == ClusterSyncResult.FAILED) {
+            circuitBreakerRegistry.recordFailure(apiHost);
+        } else {
+            circuitBreakerRegistry.recordSuccess(apiHost);
+        }
+        return result;
     }
 
     //for testing purposes
-    void loadClusterResources(CoreV1Api coreV1Api, CloudPassport cloudPassport) {
-        Cluster cluster = clusterRepository.findByName(cloudPassport.name());
-        if (cluster == null) {
-            cluster = new Cluster(cloudPassport.name());
-            Log.info("Cluster " + cloudPassport.name() + " not found in db. Creating new one.");
-            clusterRepository.persist(cluster);
+    ClusterSyncResult loadClusterResources(CoreV1Api coreV1Api, CloudPassport cloudPassport) {
+        ClusterResources clusterResources = fetchClusterResources(coreV1Api, cloudPassport);
+        boolean changed = applyClusterResourcesExclusively(clusterResources, true);
+        Log.info("Cluster " + cloudPassport.name() + " loaded successfully.");
+        if (!clusterResources.synced()) {
+            return ClusterSyncResult.FAILED;
         }
+        return changed ? ClusterSyncResult.CHANGED : ClusterSyncResult.UNCHANGED;
+    }
 
-        //it is required to set links to cluster only if it was saved to db. so need to invoke persist two
-        cluster.environments = loadEnvironments(coreV1Api, cluster, cloudPassport.environments(), cloudPassport.monitoringUrl());
-        clusterRepository.persist(cluster);
-        Log.info("Cluster " + cloudPassport.name() + " loaded successfully.");
+    /**
+     * Applies namespace and config map changes received from the cluster watch.
+     * Only environments that contain one of the changed namespaces are updated.
+     *
+     * @param changedNamespaces         names of namespaces that were added, modified or deleted in the cluster
+     * @param k8sNamespaces             all namespaces of the cluster known to the watch
+     * @param versionsConfigMapProvider returns versions config map of the namespace or null if there is none.
+     *                                  If the provider is null, config maps are requested from the cluster API
+     */
+    public void applyNamespaceChanges(CloudPassport cloudPassport, Set<String> changedNamespaces,
+                                      Map<String, V1Namespace> k8sNamespaces, Function<String, V1ConfigMap> versionsConfigMapProvider) {
+        List<CloudPassportEnvironment> affectedEnvironments = cloudPassport.environments().stream()
+                .filter(env -> env.namespaceDtos().stream().anyMatch(ns -> changedNamespaces.contains(ns.name())))
+                .toList();
+        if (affectedEnvironments.isEmpty()) {
+            return;
+        }
+        if (versionsConfigMapProvider == null) {
+            CoreV1Api coreV1Api = new CoreV1Api(kubernetesClientRegistry.getClient(cloudPassport));
+            versionsConfigMapProvider = namespaceName -> loadVersionsConfigMap(coreV1Api, namespaceName);
+        }
+        ClusterResources clusterResources = new ClusterResources(cloudPassport, affectedEnvironments, true, k8sNamespaces,
+                loadVersionsConfigMaps(affectedEnvironments, k8sNamespaces, versionsConfigMapProvider));
+        applyClusterResourcesExclusively(clusterResources, false);
+        Log.info("Changes of namespaces " + changedNamespaces + " are applied to environments "
+                + affectedEnvironments.stream().map(CloudPassportEnvironment::name).toList() + " of cluster " + cloudPassport.name());
     }
 
-    private List<Environment> loadEnvironments(CoreV1Api coreV1Api, Cluster cluster, Collection<CloudPassportEnvironment> environments, URI monitoringUri) {
+    private ClusterResources fetchClusterResources(CoreV1Api coreV1Api, CloudPassport cloudPassport) {
+        Map<String, V1Namespace> k8sNamespaces = new HashMap<>();
+        boolean synced = false;
+        //api is null when the circuit breaker of the cluster is open, so only Cloud Passport data is applied
+        if (coreV1Api != null) {
+            try {
+                k8sNamespaces = coreV1Api.listNamespace().execute().getItems().stream()
+                        .collect(Collectors.toMap(v1Namespace -> getNameSafely(v1Namespace.getMetadata()), Function.identity()));
+                synced = true;
+            } catch (ApiException e) {
+                Log.error("Can't load namespaces from cluster " + cloudPassport.name() + ". " + e.getMessage());
+            }
+        }
+        Log.info("Namespaces are loaded for " + cloudPassport.name() + ". Count is " + k8sNamespaces.size() + ". Environments count = " + cloudPassport.environments().size());
+
+        Map<String, V1ConfigMap> clusterVersionsConfigMaps = k8sNamespaces.isEmpty() ? null : loadVersionsConfigMapsForCluster(coreV1Api, cloudPassport);
+        Map<String, V1ConfigMap> versionsConfigMaps = clusterVersionsConfigMaps != null
+                ? clusterVersionsConfigMaps
+                : loadVersionsConfigMaps(cloudPassport.environments(), k8sNamespaces, namespaceName -> loadVersionsConfigMap(coreV1Api, namespaceName));
 
-        CoreV1Api.APIlistNamespaceRequest apilistNamespaceRequest = coreV1Api.listNamespace();
-        Map<String, V1Namespace> k8sNamespaces;
+        return new ClusterResources(cloudPassport, cloudPassport.environments(), synced, k8sNamespaces, versionsConfigMaps);
+    }
+
+    private Map<String, V1ConfigMap> loadVersionsConfigMaps(Collection<CloudPassportEnvironment> environments, Map<String, V1Namespace> k8sNamespaces,
+                                                            Function<String, V1ConfigMap> versionsConfigMapProvider) {
+        Set<String> namespaceNames = new LinkedHashSet<>();
+        for (CloudPassportEnvironment environment : environments) {
+            for (CloudPassportNamespace namespace : environment.namespaceDtos()) {
+                if (k8sNamespaces.containsKey(namespace.name())) {
+                    namespaceNames.add(namespace.name());
+                }
+            }
+        }
+        return clusterSyncExecutor.mapConcurrently(namespaceNames, versionsConfigMapProvider, clusterParallelism);
+    }
+
+    /**
+     * The full synchronization and watch updates of the same cluster are applied one at a time and committed before the next one starts,
+     * otherwise both can insert the same environments and namespaces of a new cluster.
+     *
+     * @return true if the cluster, its environments or namespaces are changed in the db
+     */
+    private boolean applyClusterResourcesExclusively(ClusterResources clusterResources, boolean fullSync) {
+        ReentrantLock lock = clusterLocks.computeIfAbsent(clusterResources.cloudPassport().name(), clusterName -> new ReentrantLock());
+        lock.lock();
         try {
-            V1NamespaceList list = apilistNamespaceRequest.execute();
-            k8sNamespaces = list.getItems().stream().collect(Collectors.toMap(v1Namespace -> getNameSafely(v1Namespace.getMetadata()), Function.identity()));
-            cluster.setSynced(true);
-        } catch (ApiException e) {
-            k8sNamespaces = new HashMap<>();
-            cluster.setSynced(false);
-            Log.error("Can't load namespaces from cluster " + cluster.getName() + ". " + e.getMessage());
+            return QuarkusTransaction.joiningExisting().call(() -> applyClusterResources(clusterResources, fullSync));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return true if the cluster, its environments or namespaces are changed in the db
+     */
+    private boolean applyClusterResources(ClusterResources clusterResources, boolean fullSync) {
+        Cluster cluster = findOrCreateCluster(clusterResources.cloudPassport().name());
+        boolean syncedChanged = cluster.isSynced() != clusterResources.synced();
+        cluster.setSynced(clusterResources.synced());
+        ClusterChangeSet changeSet = new ClusterChangeSet();
+        List<Environment> environments = applyEnvironments(cluster, clusterResources, changeSet);
+        if (fullSync) {
+            //it is required to set links to cluster only if it was saved to db. so need to invoke persist two
+            cluster.environments = environments;
+        }
+        clusterRepository.persist(cluster);
+        boolean changed = syncedChanged || !changeSet.isEmpty();
+        if (changed) {
+            environmentsChanged.fire(new EnvironmentsChanged("cluster " + cluster.getName() + " is synchronized"));
+        }
+        return changed;
+    }
+
+    private Cluster findOrCreateCluster(String clusterName) {
+        Cluster cluster = clusterRepository.findByName(clusterName);
+        if (cluster == null) {
+            cluster = new Cluster(clusterName);
+            Log.info("Cluster " + clusterName + " not found in db. Creating new one.");
+            clusterRepository.persist(cluster);
         }
+        return cluster;
+    }
 
+    private List<Environment> applyEnvironments(Cluster cluster, ClusterResources clusterResources, ClusterChangeSet changeSet) {
+        Map<String, V1Namespace> k8sNamespaces = clusterResources.namespaces();
         List<Environment> envs = new ArrayList<>();
-        Log.info("Namespaces are loaded for " + cluster.getName() + ". Count is " + k8sNamespaces.size() + ". Environments count = " + environments.size());
-        for (CloudPassportEnvironment cloudPassportEnvironment : environments) {
-            Environment environment = environmentRepository.findByNameAndCluster(cloudPassportEnvironment.name(), cluster.getName());
+        //environments are loaded first, so environments of namespaces are resolved from the persistence context
+        Map<String, Environment> storedEnvironments = environmentRepository.findByClusterWithNamespaces(cluster.getName()).stream()
+                .collect(Collectors.toMap(Environment::getName, Function.identity(), (first, second) -> first));
+        Map<String, Namespace> storedNamespaces = namespaceRepository.findByClusterName(cluster.getName()).stream()
+                .collect(Collectors.toMap(Namespace::getName, Function.identity(), (first, second) -> first));
+        for (CloudPassportEnvironment cloudPassportEnvironment : clusterResources.environments()) {
+            Environment environment = storedEnvironments.get(cloudPassportEnvironment.name());
             Log.info("Start working with env = " + cloudPassportEnvironment.name());
+            boolean newEnvironment = environment == null;
             EnvironmentType environmentType;
-            if (environment == null) {
+            if (newEnvironment) {
                 environment = new Environment(cloudPassportEnvironment.name());
                 environment.setDescription(cloudPassportEnvironment.description());
                 environment.setCluster(cluster);
                 environmentType = EnvironmentType.UNDEFINED;
-                environmentRepository.persist(environment);
-                Log.info("env created in db: " + environment.getName());
+                storedEnvironments.put(environment.getName(), environment);
+                changeSet.environmentInserted(environment);
+                Log.info("env will be created in db: " + environment.getName());
             } else {
                 environmentType = environment.getType();
                 Log.info("environment " + environment.getName() + " exists");
             }
-            StringBuilder deploymentVersions = new StringBuilder();
-
-            for (CloudPassportNamespace cloudPassportNamespace : cloudPassportEnvironment.namespaceDtos()) {
-                V1Namespace v1Namespace = k8sNamespaces.get(cloudPassportNamespace.name());
-                Namespace namespace = namespaceRepository.findByNameAndCluster(cloudPassportNamespace.name(), cluster.getName());
+            Map<String, V1ConfigMap> versionsConfigMaps = clusterResources.versionsConfigMaps();
+            boolean environmentUpdated = false;
+            String inputFingerprint = calculateInputFingerprint(cloudPassportEnvironment, k8sNamespaces, versionsConfigMaps);
+            if (inputFingerprint != null && inputFingerprint.equals(environment.getInputFingerprint())) {
+                Log.info("Namespaces and versions config maps of environment " + environment.getName() + " are not changed. Skipping it.");
+            } else {
+                StringBuilder deploymentVersions = new StringBuilder();
+                Instant cleanInstallationDate = environment.getCleanInstallationDate();
 
-                if (v1Namespace == null) {
-                    Log.warn("Namespace with name=" + cloudPassportNamespace.name() + " is not found in cluster " + cluster.getName());
-                    if (namespace == null) {
-                        namespace = createNamespace(UUID.randomUUID().toString(), cluster, environment);
+                for (CloudPassportNamespace cloudPassportNamespace : cloudPassportEnvironment.namespaceDtos()) {
+                    V1Namespace v1Namespace = k8sNamespaces.get(cloudPassportNamespace.name());
+                    Namespace namespace = storedNamespaces.get(cloudPassportNamespace.name());
+                    boolean existsInK8s = v1Namespace != null;
+                    if (!existsInK8s) {
+                        Log.warn("Namespace with name=" + cloudPassportNamespace.name() + " is not found in cluster " + cluster.getName());
                     }
-                    namespace.setExistsInK8s(false);
-                } else {
                     if (namespace == null) {
-                        namespace = createNamespace(v1Namespace.getMetadata().getUid(), cluster, environment);
-                        environmentType = calculateEnvironmentType(v1Namespace, environmentType);
+                        namespace = createNamespace(existsInK8s ? v1Namespace.getMetadata().getUid() : UUID.randomUUID().toString(), cluster, environment);
+                        namespace.setName(cloudPassportNamespace.name());
+                        namespace.setExistsInK8s(existsInK8s);
+                        if (existsInK8s) {
+                            environmentType = calculateEnvironmentType(v1Namespace, environmentType);
+                        }
+                        storedNamespaces.put(namespace.getName(), namespace);
+                        changeSet.namespaceInserted(namespace);
+                    } else if (namespace.isExistsInK8s() != existsInK8s) {
+                        namespace.setExistsInK8s(existsInK8s);
+                        changeSet.namespaceReconciled(true);
+                    } else {
+                        changeSet.namespaceReconciled(false);
                     }
-                    namespace.setExistsInK8s(true);
+                    if (!existsInK8s) {
+                        continue;
+                    }
+                    V1ConfigMap versionsConfigMap = versionsConfigMaps.get(cloudPassportNamespace.name());
+                    if (versionsConfigMap == null) {
+                        Log.warn("Versions config map not found in namespace " + cloudPassportNamespace.name() + ". Skipping it.");
+                        continue;
+                    }
+                    Instant configMapCreationTime = versionsConfigMap.getMetadata().getCreationTimestamp().toInstant();
+                    if (cleanInstallationDate == null || cleanInstallationDate.isBefore(configMapCreationTime)) {
+                        cleanInstallationDate = configMapCreationTime;
+                    }
+                    deploymentVersions.append(versionsConfigMap.getData().get(versionsConfigMapDataFieldName)).append("\n");
+                }
+                if (!Objects.equals(environment.getCleanInstallationDate(), cleanInstallationDate)) {
+                    Log.info("Setting clean installation date for environment " + environment.getName() + " to " + cleanInstallationDate);
+                    environment.setCleanInstallationDate(cleanInstallationDate);
+                    environmentUpdated = true;
                 }
-                namespace.setName(cloudPassportNamespace.name());
-                namespaceRepository.persist(namespace);
-                if (!namespace.isExistsInK8s()) {
-                    continue;
+                if (environment.getType() != environmentType) {
+                    environment.setType(environmentType);
+                    environmentUpdated = true;
                 }
-                V1ConfigMap versionsConfigMap = loadVersionsConfigMap(coreV1Api, cloudPassportNamespace.name());
-                if (versionsConfigMap == null) {
-                    Log.warn("Versions config map not found in namespace " + cloudPassportNamespace.name() + ". Skipping it.");
-                    continue;
+                if (!deploymentVersions.toString().equals(environment.getDeploymentVersion())) {
+                    environment.setDeploymentVersion(deploymentVersions.toString());
+                    environmentUpdated = true;
                 }
-                Instant configMapCreationTime = versionsConfigMap.getMetadata().getCreationTimestamp().toInstant();
-                if (environment.getCleanInstallationDate() == null || environment.getCleanInstallationDate().isBefore(configMapCreationTime)) {
-                    Log.info("Setting clean installation date for environment " + environment.getName() + " to " + configMapCreationTime);
-                    environment.setCleanInstallationDate(configMapCreationTime);
+                if (!Objects.equals(environment.getInputFingerprint(), inputFingerprint)) {
+                    environment.setInputFingerprint(inputFingerprint);
+                    environmentUpdated = true;
                 }
-                deploymentVersions.append(versionsConfigMap.getData().get(versionsConfigMapDataFieldName)).append("\n");
             }
-            environment.setMonitoringData(monitoringService.loadMonitoringData(monitoringUri, environment.getNamespaces().stream().map(Namespace::getName).toList()));
-            environment.setType(environmentType);
-            environment.setDeploymentVersion(deploymentVersions.toString());
-            environmentRepository.persist(environment);
-
+            if (!newEnvironment) {
+                changeSet.environmentReconciled(environmentUpdated);
+            }
             envs.add(environment);
-
         }
+        //only new entities are persisted, changes of managed ones are written on flush. statements are sent in jdbc batches
+        environmentRepository.persist(changeSet.insertedEnvironments().stream());
+        namespaceRepository.persist(changeSet.insertedNamespaces().stream());
+        Log.info("Change set for cluster " + cluster.getName() + ": " + changeSet);
         return envs;
     }
 
+    /**
+     * Calculates hash of everything the environment is computed from: namespaces of the Cloud Passport environment and
+     * uid and resourceVersion of corresponding Kubernetes namespaces and versions config maps.
+     *
+     * @return hash or null if some Kubernetes object has no resourceVersion, so changes can't be detected
+     */
+    private String calculateInputFingerprint(CloudPassportEnvironment cloudPassportEnvironment,
+                                             Map<String, V1Namespace> k8sNamespaces, Map<String, V1ConfigMap> versionsConfigMaps) {
+        StringBuilder input = new StringBuilder(versionsConfigMapDataFieldName);
+        for (CloudPassportNamespace cloudPassportNamespace : cloudPassportEnvironment.namespaceDtos()) {
+            input.append('\n').append(cloudPassportNamespace.name());
+            V1Namespace v1Namespace = k8sNamespaces.get(cloudPassportNamespace.name());
+            if (v1Namespace == null) {
+                input.append(":absent");
+                continue;
+            }
+            if (!appendVersion(input, v1Namespace.getMetadata())) {
+                return null;
+            }
+            V1ConfigMap versionsConfigMap = versionsConfigMaps.get(cloudPassportNamespace.name());
+            if (versionsConfigMap != null && !appendVersion(input, versionsConfigMap.getMetadata())) {
+                return null;
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(input.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean appendVersion(StringBuilder input, V1ObjectMeta meta) {
+        if (meta == null || meta.getResourceVersion() == null) {
+            return false;
+        }
+        input.append(':').append(meta.getUid()).append('@').append(meta.getResourceVersion());
+        return true;
+    }
+
     private Namespace createNamespace(String uuid, Cluster cluster, Environment environment) {
         Namespace namespace;
         namespace = new Namespace();
@@ -183,6 +387,45 @@ private Namespace createNamespace(String uuid, Cluster cluster, Environment envi
         return namespace;
     }
 
+    /**
+     * Loads versions config maps of all namespaces with paginated cluster-wide requests.
+     *
+     * A denied listing is remembered for the client of the cluster and is not requested again until the retry interval passes or the token is changed.
+     *
+     * @return config maps grouped by namespace or null if cluster-wide listing is disabled or not permitted for the token
+     */
+    private Map<String, V1ConfigMap> loadVersionsConfigMapsForCluster(CoreV1Api coreV1Api, CloudPassport cloudPassport) {
+        if (!clusterWideVersionsListing || kubernetesClientRegistry.isClusterWideListingDenied(cloudPassport, Instant.now())) {
+            return null;
+        }
+        String clusterName = cloudPassport.name();
+        Map<String, V1ConfigMap> configMaps = new HashMap<>();
+        String continueToken = null;
+        try {
+            do {
+                V1ConfigMapList configMapList = coreV1Api.listConfigMapForAllNamespaces()
+                        .fieldSelector("metadata.name=" + versionsConfigMapName)
+                        .limit(versionsConfigMapPageSize)
+                        ._continue(continueToken)
+                        .execute();
+                for (V1ConfigMap configMap : configMapList.getItems()) {
+                    configMaps.putIfAbsent(Objects.requireNonNull(configMap.getMetadata()).getNamespace(), configMap);
+                }
+                continueToken = configMapList.getMetadata() == null ? null : configMapList.getMetadata().getContinue();
+            } while (continueToken != null && !continueToken.isEmpty());
+        } catch (ApiException e) {
+            if (e.getCode() == HTTP_UNAUTHORIZED || e.getCode() == HTTP_FORBIDDEN) {
+                Log.info("Config maps can't be listed in all namespaces of cluster " + clusterName + ". Loading them namespace by namespace.");
+                kubernetesClientRegistry.denyClusterWideListing(cloudPassport, Instant.now());
+            } else {
+                Log.warn("Can't list config maps in all namespaces of cluster " + clusterName + ". Loading them namespace by namespace. " + e.getMessage());
+            }
+            return null;
+        }
+        Log.info("Versions config maps are loaded for " + clusterName + ". Count is " + configMaps.size());
+        return configMaps;
+    }
+
     private V1ConfigMap loadVersionsConfigMap(CoreV1Api coreV1Api, String namespaceName) {
         CoreV1Api.APIlistNamespacedConfigMapRequest request = coreV1Api.listNamespacedConfigMap(namespaceName).fieldSelector("metadata.name=" + versionsConfigMapName);
         V1ConfigMapList configMapList;
@@ -4,65 +4,137 @@
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
-import org.qubership.colly.db.data.Cluster;
-import org.qubership.colly.db.data.Environment;
+import org.qubership.colly.db.EnvironmentQuery;
+import org.qubership.colly.db.data.EnvironmentStatus;
+import org.qubership.colly.db.data.EnvironmentType;
 import org.qubership.colly.dto.ApplicationMetadata;
-import org.qubership.colly.dto.EnvironmentDTO;
-import org.qubership.colly.dto.ClusterDTO;
-import org.qubership.colly.mapper.EnvironmentMapper;
-import org.qubership.colly.mapper.ClusterMapper;
+import org.qubership.colly.dto.EnvironmentPage;
+import org.qubership.colly.dto.MonitoringHistoryDTO;
+import org.qubership.colly.dto.SyncStatus;
 import org.qubership.colly.monitoring.MonitoringService;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @Path("/colly")
 public class ClusterResourcesRest {
-    
+
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final CacheControl REVALIDATE = revalidate();
+
     private final CollyStorage collyStorage;
     private final SecurityIdentity securityIdentity;
     private final MonitoringService monitoringService;
-    private final EnvironmentMapper environmentMapper;
-    private final ClusterMapper clusterMapper;
+    private final SyncCoordinator syncCoordinator;
+    private final MonitoringHistoryStore monitoringHistoryStore;
+    private final InventoryVersion inventoryVersion;
 
     @Inject
     public ClusterResourcesRest(CollyStorage collyStorage,
                                SecurityIdentity securityIdentity,
                                MonitoringService monitoringService,
-                               EnvironmentMapper environmentMapper,
-                               ClusterMapper clusterMapper) {
+                               SyncCoordinator syncCoordinator,
+                               MonitoringHistoryStore monitoringHistoryStore,
+                               InventoryVersion inventoryVersion) {
         this.collyStorage = collyStorage;
         this.securityIdentity = securityIdentity;
         this.monitoringService = monitoringService;
-        this.environmentMapper = environmentMapper;
-        this.clusterMapper = clusterMapper;
+        this.syncCoordinator = syncCoordinator;
+        this.monitoringHistoryStore = monitoringHistoryStore;
+        this.inventoryVersion = inventoryVersion;
     }
 
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/clusters")
-    public List<ClusterDTO> getClusters() {
-        List<Cluster> clusters = collyStorage.getClusters();
-        return clusterMapper.toDTOs(clusters);
+    public Response getClusters(@Context Request request) {
+        return conditionalGet(request, () -> Response.ok(collyStorage.getClusters()));
     }
 
+    /**
+     * Returns environments that match all given filters. The total number of matching environments on all pages
+     * is returned in the {@code X-Total-Count} header. Responses have an ETag of the inventory version, so a poll with
+     * the ETag in {@code If-None-Match} gets 304 without reading and serializing environments until they are changed.
+     *
+     * @param sort  comma separated keys: name, cluster, owner, team, status, type, expirationDate, cleanInstallationDate.
+     *              A key prefixed with {@code -} is sorted in descending order. By default, environments are sorted by cluster and name
+     * @param page  zero based page number, used with limit
+     * @param limit page size, all environments are returned by default
+     */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/environments")
-    public List<EnvironmentDTO> getEnvironments() {
-        List<Environment> environments = collyStorage.getEnvironments();
-        return environmentMapper.toDTOs(environments);
+    public Response getEnvironments(@QueryParam("cluster") String cluster,
+                                    @QueryParam("status") String status,
+                                    @QueryParam("type") String type,
+                                    @QueryParam("owner") String owner,
+                                    @QueryParam("team") String team,
+                                    @QueryParam("label") String label,
+                                    @QueryParam("expirationFrom") String expirationFrom,
+                                    @QueryParam("expirationTo") String expirationTo,
+                                    @QueryParam("sort") String sort,
+                                    @QueryParam("page") @DefaultValue("0") int page,
+                                    @QueryParam("limit") Integer limit,
+                                    @Context Request request) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        EnvironmentQuery query = new EnvironmentQuery(emptyToNull(cluster),
+                parseEnum(EnvironmentStatus.class, status), parseEnum(EnvironmentType.class, type),
+                emptyToNull(owner), emptyToNull(team), emptyToNull(label),
+                parseDate(expirationFrom), parseDate(expirationTo), emptyToNull(sort), page, limit);
+        return conditionalGet(request, () -> {
+            EnvironmentPage environmentPage = collyStorage.findEnvironments(query);
+            return Response.ok(environmentPage.environments())
+                    .header(TOTAL_COUNT_HEADER, environmentPage.total());
+        });
+    }
+
+    /**
+     * @param from       start of the range in ISO-8601 format, an hour before the end by default
+     * @param to         end of the range in ISO-8601 format, now by default
+     * @param resolution raw, 5m or 1h. By default, the finest resolution that still keeps the start of the range
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/environments/{envId}/monitoring-history")
+    public MonitoringHistoryDTO getMonitoringHistory(@PathParam("envId") String id,
+                                                     @QueryParam("parameter") String parameter,
+                                                     @QueryParam("from") String from,
+                                                     @QueryParam("to") String to,
+                                                     @QueryParam("resolution") String resolution) {
+        return monitoringHistoryStore.getHistory(id, parameter, parseInstant(from), parseInstant(to), resolution);
     }
 
     @POST
     @Path("/tick")
     @Produces(MediaType.APPLICATION_JSON)
-    public void loadEnvironmentsManually() {
-        collyStorage.executeTask();
+    public Response loadEnvironmentsManually() {
+        boolean started = syncCoordinator.trigger("manual");
+        return Response.accepted(Map.of("started", started)).build();
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/sync/status")
+    public SyncStatus getSyncStatus() {
+        return syncCoordinator.getStatus();
     }
 
     @POST
@@ -123,5 +195,63 @@ public ApplicationMetadata getMetadata() {
         List<String> parameters = monitoringService.getParameters();
         return new ApplicationMetadata(parameters);
     }
-}
 
+    /**
+     * The version is taken before the response is built, so the ETag never claims newer data than the response contains.
+     * An ETag is bound to the URL with query parameters, so filtered and paged lists share the version.
+     */
+    private Response conditionalGet(Request request, Supplier<Response.ResponseBuilder> response) {
+        EntityTag etag = new EntityTag(inventoryVersion.etag(inventoryVersion.get()));
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.tag(etag).cacheControl(REVALIDATE).build();
+        }
+        return response.get().tag(etag).cacheControl(REVALIDATE).build();
+    }
+
+    /**
+     * Clients may keep responses, but revalidate them with the ETag on every use.
+     */
+    private static CacheControl revalidate() {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setNoCache(true);
+        return cacheControl;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> enumClass, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return Arrays.stream(enumClass.getEnumConstants())
+                .filter(constant -> constant.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown value " + value + ". Supported values: "
+                        + Arrays.toString(enumClass.getEnumConstants())));
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date " + value + ". Expected ISO-8601 format, e.g. 2025-01-01");
+        }
+    }
+
+    private static Instant parseInstant(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time " + value + ". Expected ISO-8601 format, e.g. 2025-01-01T00:00:00Z");
+        }
+    }
+}
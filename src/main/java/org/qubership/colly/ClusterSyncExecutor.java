@@ -0,0 +1,199 @@
+package org.qubership.colly;
+
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.context.ThreadContext;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs synchronization of clusters in parallel.
+ * <p>
+ * By default a fixed pool of {@code colly.cluster-resource-loader.thread-pool-size} platform threads is used.
+ * With {@code colly.cluster-resource-loader.virtual-threads} every cluster is synchronized in its own virtual thread
+ * and at most {@code colly.cluster-resource-loader.max-concurrency} clusters are synchronized at the same time.
+ * Calls inside synchronization of one cluster are fanned out to virtual threads with {@link #mapConcurrently}.
+ */
+@ApplicationScoped
+public class ClusterSyncExecutor {
+
+    private final ExecutorService fanOutExecutorService = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cluster-sync-fan-out-", 0).factory());
+    private final ScheduledExecutorService deadlineScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("cluster-sync-deadline-", 0).daemon().factory());
+    private ExecutorService executorService;
+    private Semaphore permits;
+
+    @Inject
+    ThreadContext threadContext;
+
+    @ConfigProperty(name = "colly.cluster-resource-loader.thread-pool-size")
+    int threadPoolSize;
+
+    @ConfigProperty(name = "colly.cluster-resource-loader.virtual-threads")
+    boolean virtualThreads;
+
+    @ConfigProperty(name = "colly.cluster-resource-loader.max-concurrency")
+    int maxConcurrency;
+
+    @ConfigProperty(name = "colly.cluster-resource-loader.shutdown-timeout")
+    Duration shutdownTimeout;
+
+    @PostConstruct
+    void init() {
+        if (virtualThreads) {
+            executorService = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("cluster-sync-", 0).factory());
+            permits = new Semaphore(maxConcurrency);
+        } else {
+            executorService = Executors.newFixedThreadPool(threadPoolSize, Thread.ofPlatform().name("cluster-sync-", 0).factory());
+        }
+    }
+
+    /**
+     * Runs the task in background. The time budget is counted from the start of the task, not from its submission.
+     * When the budget is exceeded, the returned future is completed with {@link TimeoutException} and the task is interrupted.
+     * The task is interrupted as well if the returned future is completed by the caller, e.g. when a run deadline is exceeded.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task, Duration timeout) {
+        Supplier<T> contextualTask = threadContext.contextualSupplier(task);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        TaskExecution execution = new TaskExecution();
+        result.whenComplete((value, error) -> execution.interrupt());
+        executorService.execute(() -> {
+            if (permits != null) {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(new IllegalStateException("Cluster synchronization is interrupted", e));
+                    return;
+                }
+            }
+            try {
+                if (!execution.start()) {
+                    return;
+                }
+                ScheduledFuture<?> deadline = deadlineScheduler.schedule(
+                        () -> result.completeExceptionally(new TimeoutException("Time budget of " + timeout + " is exceeded")),
+                        timeout.toMillis(), TimeUnit.MILLISECONDS);
+                T value = null;
+                Throwable error = null;
+                try {
+                    value = contextualTask.get();
+                } catch (Throwable e) {
+                    error = e;
+                } finally {
+                    deadline.cancel(false);
+                    execution.finish();
+                }
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            } finally {
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Applies the function to all keys concurrently, at most {@code parallelism} calls at a time.
+     * It is used to parallelize network calls inside synchronization of one cluster.
+     *
+     * @return results in the order of keys, keys with null results are omitted
+     */
+    public <K, V> Map<K, V> mapConcurrently(Collection<K> keys, Function<K, V> function, int parallelism) {
+        Semaphore callPermits = new Semaphore(Math.max(1, parallelism));
+        Map<K, Future<V>> futures = new LinkedHashMap<>();
+        for (K key : keys) {
+            futures.putIfAbsent(key, fanOutExecutorService.submit(() -> {
+                callPermits.acquire();
+                try {
+                    return function.apply(key);
+                } finally {
+                    callPermits.release();
+                }
+            }));
+        }
+        Map<K, V> results = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<K, Future<V>> entry : futures.entrySet()) {
+                V result = entry.getValue().get();
+                if (result != null) {
+                    results.put(entry.getKey(), result);
+                }
+            }
+        } catch (ExecutionException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Cluster synchronization is interrupted", e);
+        }
+        return results;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOutExecutorService.shutdownNow();
+        deadlineScheduler.shutdownNow();
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                Log.warn("Cluster synchronization is not completed in " + shutdownTimeout + ". Interrupting it.");
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Thread that executes a task. It is interrupted only while the task is running, so a pooled thread is never interrupted
+     * when it already executes another task.
+     */
+    private static class TaskExecution {
+        private Thread thread;
+        private boolean running;
+        private boolean interrupted;
+
+        synchronized boolean start() {
+            if (interrupted) {
+                return false;
+            }
+            thread = Thread.currentThread();
+            running = true;
+            return true;
+        }
+
+        synchronized void finish() {
+            running = false;
+            //an interrupt requested after the task is completed must not leak to the next task of the pooled thread
+            Thread.interrupted();
+        }
+
+        synchronized void interrupt() {
+            interrupted = true;
+            if (running) {
+                thread.interrupt();
+            }
+        }
+    }
+}
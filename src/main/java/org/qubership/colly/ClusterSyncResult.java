@@ -0,0 +1,19 @@
+package org.qubership.colly;
+
+/**
+ * Outcome of the synchronization of one cluster. It is used to choose when the cluster is synchronized next time.
+ */
+public enum ClusterSyncResult {
+    /**
+     * Some environments or namespaces of the cluster were created or updated.
+     */
+    CHANGED,
+    /**
+     * The cluster was loaded but nothing is changed since the previous synchronization.
+     */
+    UNCHANGED,
+    /**
+     * The cluster is not reachable or its resources can't be loaded.
+     */
+    FAILED
+}
@@ -0,0 +1,147 @@
+package org.qubership.colly;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.qubership.colly.cloudpassport.CloudPassport;
+import org.qubership.colly.dto.ClusterScheduleStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps the time of the next synchronization of every cluster, so clusters are not synchronized all at once on every run.
+ * <ul>
+ *     <li>a changed cluster is synchronized again after the base interval</li>
+ *     <li>the interval of a cluster that is not changed grows twice after every synchronization up to the max idle interval</li>
+ *     <li>the interval of a failing cluster grows twice after every failure up to the max backoff</li>
+ * </ul>
+ * Every interval is shifted by a random jitter and a cluster seen for the first time gets a random start inside the base interval,
+ * so synchronizations are spread over time.
+ * <p>
+ * The schedule of a cluster also shows the state of circuit breakers of its Kubernetes API host and monitoring URI.
+ */
+@ApplicationScoped
+public class ClusterSyncScheduler {
+
+    private static final int MAX_DOUBLINGS = 20;
+
+    private final Map<String, ClusterSchedule> schedules = new ConcurrentHashMap<>();
+
+    @Inject
+    CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @ConfigProperty(name = "colly.cluster-sync.interval")
+    Duration interval;
+
+    @ConfigProperty(name = "colly.cluster-sync.max-idle-interval")
+    Duration maxIdleInterval;
+
+    @ConfigProperty(name = "colly.cluster-sync.max-backoff")
+    Duration maxBackoff;
+
+    @ConfigProperty(name = "colly.cluster-sync.jitter")
+    double jitter;
+
+    /**
+     * Returns clusters whose synchronization time has come. Schedules of clusters that are not present in Cloud Passports anymore are removed.
+     *
+     * @param forced if true, all clusters are returned regardless of their schedule
+     */
+    public List<CloudPassport> selectDueClusters(Collection<CloudPassport> cloudPassports, boolean forced, Instant now) {
+        List<String> clusterNames = cloudPassports.stream().map(CloudPassport::name).toList();
+        schedules.keySet().retainAll(clusterNames);
+        return cloudPassports.stream()
+                .filter(cloudPassport -> {
+                    ClusterSchedule schedule = schedules.computeIfAbsent(cloudPassport.name(),
+                            name -> new ClusterSchedule(now.plusMillis(randomMillis(interval.toMillis()))));
+                    schedule.apiHost = cloudPassport.cloudApiHost();
+                    schedule.monitoringUri = cloudPassport.monitoringUrl() == null ? null : cloudPassport.monitoringUrl().toString();
+                    return forced || !schedule.nextSyncAt.isAfter(now);
+                })
+                .toList();
+    }
+
+    /**
+     * Calculates the next synchronization time of the cluster from the result of its synchronization.
+     */
+    public void clusterSynced(String clusterName, ClusterSyncResult result, Instant now) {
+        schedules.compute(clusterName, (name, schedule) -> {
+            if (schedule == null) {
+                schedule = new ClusterSchedule(now);
+            }
+            Duration delay;
+            if (result == ClusterSyncResult.FAILED) {
+                schedule.consecutiveFailures++;
+                schedule.unchangedSyncs = 0;
+                delay = grow(interval, schedule.consecutiveFailures, maxBackoff);
+            } else if (result == ClusterSyncResult.UNCHANGED) {
+                schedule.consecutiveFailures = 0;
+                schedule.unchangedSyncs++;
+                delay = grow(interval, schedule.unchangedSyncs, maxIdleInterval);
+            } else {
+                schedule.consecutiveFailures = 0;
+                schedule.unchangedSyncs = 0;
+                delay = interval;
+            }
+            schedule.lastResult = result;
+            schedule.nextSyncAt = now.plus(withJitter(delay));
+            if (result == ClusterSyncResult.FAILED) {
+                Log.warn("Synchronization of cluster " + name + " failed " + schedule.consecutiveFailures
+                        + " times in a row. Next attempt at " + schedule.nextSyncAt);
+            }
+            return schedule;
+        });
+    }
+
+    public List<ClusterScheduleStatus> getStatus() {
+        return schedules.entrySet().stream()
+                .map(entry -> entry.getValue().toStatus(entry.getKey(), circuitBreakerRegistry))
+                .sorted(Comparator.comparing(ClusterScheduleStatus::name))
+                .toList();
+    }
+
+    private static Duration grow(Duration base, int times, Duration max) {
+        Duration grown = base.multipliedBy(1L << Math.min(times, MAX_DOUBLINGS));
+        return grown.compareTo(max) > 0 ? max : grown;
+    }
+
+    private Duration withJitter(Duration delay) {
+        long jitterMillis = (long) (delay.toMillis() * jitter);
+        return delay.minusMillis(jitterMillis).plusMillis(randomMillis(2 * jitterMillis + 1));
+    }
+
+    private static long randomMillis(long bound) {
+        return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound);
+    }
+
+    private static class ClusterSchedule {
+        private Instant nextSyncAt;
+        private ClusterSyncResult lastResult;
+        private int consecutiveFailures;
+        private int unchangedSyncs;
+        private String apiHost;
+        private String monitoringUri;
+
+        private ClusterSchedule(Instant nextSyncAt) {
+            this.nextSyncAt = nextSyncAt;
+        }
+
+        private ClusterScheduleStatus toStatus(String clusterName, CircuitBreakerRegistry circuitBreakerRegistry) {
+            return new ClusterScheduleStatus(clusterName, nextSyncAt, lastResult == null ? null : lastResult.name(),
+                    consecutiveFailures, unchangedSyncs,
+                    stateName(circuitBreakerRegistry.getState(apiHost)), stateName(circuitBreakerRegistry.getState(monitoringUri)));
+        }
+
+        private static String stateName(CircuitBreakerRegistry.State state) {
+            return state == null ? null : state.name();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.qubership.colly;
+
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.informer.cache.Lister;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1ConfigMapList;
+import io.kubernetes.client.openapi.models.V1Namespace;
+import io.kubernetes.client.openapi.models.V1NamespaceList;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.qubership.colly.cloudpassport.CloudPassport;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps shared informers for namespaces and versions config maps of every cluster and applies changed namespaces to the db as watch events arrive.
+ * Events are collected for {@code colly.cluster-watch.debounce} before they are applied. The periodic synchronization stays as a full resync.
+ */
+@ApplicationScoped
+public class ClusterWatchService {
+
+    private final Map<String, ClusterWatch> watches = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    @Inject
+    ClusterResourcesLoader clusterResourcesLoader;
+
+    @Inject
+    KubernetesClientRegistry kubernetesClientRegistry;
+
+    @ConfigProperty(name = "colly.cluster-watch.enabled")
+    boolean enabled;
+
+    @ConfigProperty(name = "colly.cluster-watch.debounce")
+    Duration debounce;
+
+    @ConfigProperty(name = "colly.config-map.versions.name")
+    String versionsConfigMapName;
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("cluster-watch-", 0).daemon().factory());
+    }
+
+    /**
+     * Starts watches for new clusters, restarts them when API host or token is changed and stops watches of removed clusters.
+     */
+    public synchronized void syncWatches(Collection<CloudPassport> cloudPassports) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, CloudPassport> cloudPassportsByName = cloudPassports.stream()
+                .collect(Collectors.toMap(CloudPassport::name, Function.identity(), (first, second) -> first));
+        watches.values().removeIf(watch -> {
+            CloudPassport cloudPassport = cloudPassportsByName.get(watch.clusterName);
+            if (cloudPassport != null && watch.isConnectedTo(cloudPassport)) {
+                return false;
+            }
+            watch.stop();
+            return true;
+        });
+        cloudPassportsByName.forEach((clusterName, cloudPassport) -> {
+            ClusterWatch watch = watches.get(clusterName);
+            if (watch == null) {
+                watch = new ClusterWatch(cloudPassport);
+                watches.put(clusterName, watch);
+                watch.start();
+            } else {
+                watch.cloudPassport = cloudPassport;
+            }
+        });
+    }
+
+    public Set<String> getWatchedClusters() {
+        return Set.copyOf(watches.keySet());
+    }
+
+    @PreDestroy
+    void close() {
+        watches.values().forEach(ClusterWatch::stop);
+        watches.clear();
+        scheduler.shutdownNow();
+    }
+
+    private class ClusterWatch {
+        private final String clusterName;
+        private final Set<String> pendingNamespaces = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private volatile CloudPassport cloudPassport;
+        private SharedInformerFactory informerFactory;
+        private SharedIndexInformer<V1Namespace> namespaceInformer;
+        private SharedIndexInformer<V1ConfigMap> configMapInformer;
+
+        private ClusterWatch(CloudPassport cloudPassport) {
+            this.clusterName = cloudPassport.name();
+            this.cloudPassport = cloudPassport;
+        }
+
+        private boolean isConnectedTo(CloudPassport other) {
+            return Objects.equals(cloudPassport.cloudApiHost(), other.cloudApiHost()) && Objects.equals(cloudPassport.token(), other.token());
+        }
+
+        private void start() {
+            ApiClient client = kubernetesClientRegistry.createWatchClient(cloudPassport);
+            CoreV1Api coreV1Api = new CoreV1Api(client);
+            informerFactory = new SharedInformerFactory(client);
+            namespaceInformer = informerFactory.sharedIndexInformerFor(
+                    params -> coreV1Api.listNamespace()
+                            .resourceVersion(params.resourceVersion)
+                            .timeoutSeconds(params.timeoutSeconds)
+                            .watch(params.watch)
+                            .buildCall(null),
+                    V1Namespace.class, V1NamespaceList.class, 0,
+                    (type, e) -> Log.warn("Namespace watch of cluster " + clusterName + " failed. " + e.getMessage()));
+            configMapInformer = informerFactory.sharedIndexInformerFor(
+                    params -> coreV1Api.listConfigMapForAllNamespaces()
+                            .fieldSelector("metadata.name=" + versionsConfigMapName)
+                            .resourceVersion(params.resourceVersion)
+                            .timeoutSeconds(params.timeoutSeconds)
+                            .watch(params.watch)
+                            .buildCall(null),
+                    V1ConfigMap.class, V1ConfigMapList.class, 0,
+                    (type, e) -> Log.warn("Versions config map watch of cluster " + clusterName + " failed. " + e.getMessage()));
+            namespaceInformer.addEventHandler(new NamespaceChangeHandler<>(V1ObjectMeta::getName));
+            configMapInformer.addEventHandler(new NamespaceChangeHandler<>(V1ObjectMeta::getNamespace));
+            informerFactory.startAllRegisteredInformers();
+            Log.info("Watch is started for cluster " + clusterName);
+        }
+
+        private void stop() {
+            informerFactory.stopAllRegisteredInformers(true);
+            Log.info("Watch is stopped for cluster " + clusterName);
+        }
+
+        private void namespaceChanged(String namespaceName) {
+            if (namespaceName == null) {
+                return;
+            }
+            pendingNamespaces.add(namespaceName);
+            scheduleFlush();
+        }
+
+        private void scheduleFlush() {
+            if (flushScheduled.compareAndSet(false, true)) {
+                scheduler.schedule(this::flush, debounce.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void flush() {
+            flushScheduled.set(false);
+            if (watches.get(clusterName) != this) {
+                return;
+            }
+            if (!namespaceInformer.hasSynced()) {
+                //namespaces are applied only against the full list of the cluster, so pending changes wait for the initial list
+                scheduleFlush();
+                return;
+            }
+            Set<String> changedNamespaces = new HashSet<>();
+            for (Iterator<String> iterator = pendingNamespaces.iterator(); iterator.hasNext(); ) {
+                changedNamespaces.add(iterator.next());
+                iterator.remove();
+            }
+            if (changedNamespaces.isEmpty()) {
+                return;
+            }
+            Map<String, V1Namespace> k8sNamespaces = new HashMap<>();
+            namespaceInformer.getIndexer().list().forEach(namespace -> k8sNamespaces.put(namespace.getMetadata().getName(), namespace));
+            Function<String, V1ConfigMap> versionsConfigMapProvider = null;
+            if (configMapInformer.hasSynced()) {
+                Lister<V1ConfigMap> lister = new Lister<>(configMapInformer.getIndexer());
+                versionsConfigMapProvider = namespaceName -> lister.namespace(namespaceName).get(versionsConfigMapName);
+            }
+            try {
+                clusterResourcesLoader.applyNamespaceChanges(cloudPassport, changedNamespaces, k8sNamespaces, versionsConfigMapProvider);
+            } catch (RuntimeException e) {
+                Log.error("Can't apply changes of namespaces " + changedNamespaces + " in cluster " + clusterName, e);
+                //kept for the next flush, so the changes are not lost until the next full synchronization
+                pendingNamespaces.addAll(changedNamespaces);
+            }
+        }
+
+        private class NamespaceChangeHandler<T extends KubernetesObject> implements ResourceEventHandler<T> {
+            private final Function<V1ObjectMeta, String> namespaceName;
+
+            private NamespaceChangeHandler(Function<V1ObjectMeta, String> namespaceName) {
+                this.namespaceName = namespaceName;
+            }
+
+            @Override
+            public void onAdd(T obj) {
+                changed(obj);
+            }
+
+            @Override
+            public void onUpdate(T oldObj, T newObj) {
+                changed(newObj);
+            }
+
+            @Override
+            public void onDelete(T obj, boolean deletedFinalStateUnknown) {
+                changed(obj);
+            }
+
+            private void changed(T obj) {
+                V1ObjectMeta meta = obj.getMetadata();
+                if (meta != null) {
+                    namespaceChanged(namespaceName.apply(meta));
+                }
+            }
+        }
+    }
+}
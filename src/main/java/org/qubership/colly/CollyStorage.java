@@ -1,26 +1,37 @@
 package org.qubership.colly;
 
 import io.quarkus.logging.Log;
-import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.qubership.colly.cloudpassport.CloudPassport;
 import org.qubership.colly.db.ClusterRepository;
+import org.qubership.colly.db.EnvironmentQuery;
 import org.qubership.colly.db.EnvironmentRepository;
 import org.qubership.colly.db.data.Cluster;
 import org.qubership.colly.db.data.Environment;
 import org.qubership.colly.db.data.EnvironmentStatus;
 import org.qubership.colly.db.data.EnvironmentType;
+import org.qubership.colly.dto.ClusterDTO;
+import org.qubership.colly.dto.EnvironmentDTO;
+import org.qubership.colly.dto.EnvironmentPage;
+import org.qubership.colly.monitoring.MonitoringClientRegistry;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class CollyStorage {
@@ -29,42 +40,107 @@ public class CollyStorage {
     private final ClusterRepository clusterRepository;
     private final EnvironmentRepository environmentRepository;
     private final CloudPassportLoader cloudPassportLoader;
-    private final Executor executor;
+    private final KubernetesClientRegistry kubernetesClientRegistry;
+    private final ClusterWatchService clusterWatchService;
+    private final ClusterSyncExecutor clusterSyncExecutor;
+    private final ClusterSyncScheduler clusterSyncScheduler;
+    private final MonitoringClientRegistry monitoringClientRegistry;
+    private final MonitoringRefresher monitoringRefresher;
+    private final EnvironmentSnapshot environmentSnapshot;
+    private final Event<EnvironmentsChanged> environmentsChanged;
+
+    @ConfigProperty(name = "colly.cluster-sync.interval")
+    Duration cloudPassportsRefreshInterval;
+
+    @ConfigProperty(name = "colly.cluster-sync.cluster-timeout")
+    Duration clusterTimeout;
+
+    @ConfigProperty(name = "colly.cluster-sync.run-timeout")
+    Duration runTimeout;
+
+    private List<CloudPassport> cloudPassports;
+    private Instant cloudPassportsLoadedAt;
 
     @Inject
     public CollyStorage(ClusterResourcesLoader clusterResourcesLoader,
                        ClusterRepository clusterRepository,
                        EnvironmentRepository environmentRepository,
                        CloudPassportLoader cloudPassportLoader,
-                       @ConfigProperty(name = "colly.cluster-resource-loader.thread-pool-size") int threadPoolSize) {
+                       KubernetesClientRegistry kubernetesClientRegistry,
+                       ClusterWatchService clusterWatchService,
+                       ClusterSyncExecutor clusterSyncExecutor,
+                       ClusterSyncScheduler clusterSyncScheduler,
+                       MonitoringClientRegistry monitoringClientRegistry,
+                       MonitoringRefresher monitoringRefresher,
+                       EnvironmentSnapshot environmentSnapshot,
+                       Event<EnvironmentsChanged> environmentsChanged) {
         this.clusterResourcesLoader = clusterResourcesLoader;
         this.clusterRepository = clusterRepository;
         this.environmentRepository = environmentRepository;
         this.cloudPassportLoader = cloudPassportLoader;
-        this.executor = Executors.newFixedThreadPool(threadPoolSize);
+        this.kubernetesClientRegistry = kubernetesClientRegistry;
+        this.clusterWatchService = clusterWatchService;
+        this.clusterSyncExecutor = clusterSyncExecutor;
+        this.clusterSyncScheduler = clusterSyncScheduler;
+        this.monitoringClientRegistry = monitoringClientRegistry;
+        this.monitoringRefresher = monitoringRefresher;
+        this.environmentSnapshot = environmentSnapshot;
+        this.environmentsChanged = environmentsChanged;
     }
 
-    @Scheduled(cron = "{cron.schedule}")
     void executeTask() {
-        Log.info("Task for loading resources from clusters has started");
+        executeTask(new SyncRun("direct", true));
+    }
+
+    /**
+     * Synchronizes clusters which synchronization time has come, or all clusters if the run is forced, and waits for completion.
+     * Every cluster has its own time budget and clusters that are not completed before the run deadline are cancelled.
+     * Runs are started by {@link SyncCoordinator}, so they never overlap.
+     */
+    void executeTask(SyncRun syncRun) {
         Date startTime = new Date();
-        List<CloudPassport> cloudPassports = cloudPassportLoader.loadCloudPassports();
+        List<CloudPassport> cloudPassports = loadCloudPassports(syncRun.isForced(), startTime.toInstant());
         List<String> clusterNames = cloudPassports.stream().map(CloudPassport::name).toList();
-        Log.info("Cloud passports loaded for clusters: " + clusterNames);
-
-        List<CompletableFuture<Void>> futures = cloudPassports.stream()
-                .map(cloudPassport -> CompletableFuture.runAsync(
-                        () -> {
-                            Log.info("Starting to load resources for cluster: " + cloudPassport.name());
-                            clusterResourcesLoader.loadClusterResources(cloudPassport);
-                            Log.info("Completed loading resources for cluster: " + cloudPassport.name());
-                        }, executor))
-                .toList();
-
-        CompletableFuture<Void> allFutures = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+        kubernetesClientRegistry.retainClusters(clusterNames);
+        monitoringClientRegistry.retainMonitoringUris(cloudPassports.stream()
+                .map(CloudPassport::monitoringUrl)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        monitoringRefresher.retainClusters(cloudPassports);
+        clusterWatchService.syncWatches(cloudPassports);
+        List<CloudPassport> dueClusters = clusterSyncScheduler.selectDueClusters(cloudPassports, syncRun.isForced(), startTime.toInstant());
+        if (dueClusters.isEmpty()) {
+            Log.debug("No clusters are due for synchronization");
+            return;
+        }
+        List<String> dueClusterNames = dueClusters.stream().map(CloudPassport::name).toList();
+        Log.info("Task for loading resources from clusters has started. Clusters: " + dueClusterNames);
+        syncRun.clustersScheduled(dueClusterNames);
+
+        Map<String, CompletableFuture<ClusterSyncResult>> futures = new LinkedHashMap<>();
+        for (CloudPassport cloudPassport : dueClusters) {
+            CompletableFuture<ClusterSyncResult> future = clusterSyncExecutor.supplyAsync(() -> {
+                Log.info("Starting to load resources for cluster: " + cloudPassport.name());
+                syncRun.clusterStarted(cloudPassport.name());
+                return clusterResourcesLoader.loadClusterResources(cloudPassport);
+            }, clusterTimeout);
+            future.whenComplete((result, error) -> clusterSyncCompleted(syncRun, cloudPassport.name(), result, error));
+            futures.put(cloudPassport.name(), future);
+        }
+
+        CompletableFuture<Void> allFutures = CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]));
         try {
-            allFutures.join(); // Wait for all to complete
-        } catch (Exception e) {
+            allFutures.get(runTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            Log.warn("Synchronization run deadline of " + runTimeout + " is exceeded. Unfinished clusters are cancelled: "
+                    + syncRun.unfinishedClusters());
+            TimeoutException runDeadlineExceeded = new TimeoutException("Synchronization run deadline of " + runTimeout + " is exceeded");
+            futures.values().forEach(future -> future.completeExceptionally(runDeadlineExceeded));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.values().forEach(future -> future.completeExceptionally(e));
+            Log.warn("Synchronization run is interrupted");
+        } catch (ExecutionException e) {
             Log.error("Error occurred while loading cluster resources in parallel", e);
         }
 
@@ -72,17 +148,52 @@ void executeTask() {
         long loadingDuration = loadCompleteTime.getTime() - startTime.getTime();
         Log.info("Task for loading resources from clusters has completed.");
         Log.info("Loading Duration =" + loadingDuration + " ms");
+        Log.info("Kubernetes client pool: " + kubernetesClientRegistry.stats());
+        Log.info("Monitoring client pool: " + monitoringClientRegistry.stats());
     }
 
-    public List<Environment> getEnvironments() {
-        return environmentRepository.findAll().stream()
-                .sorted(Comparator.comparing((Environment e) -> e.getCluster().getName())
-                        .thenComparing(Environment::getName))
-                .toList();
+    private void clusterSyncCompleted(SyncRun syncRun, String clusterName, ClusterSyncResult result, Throwable error) {
+        if (error != null) {
+            Log.error("Can't load resources for cluster: " + clusterName, error);
+            result = ClusterSyncResult.FAILED;
+        } else {
+            Log.info("Completed loading resources for cluster: " + clusterName);
+        }
+        syncRun.clusterCompleted(clusterName, result, error);
+        clusterSyncScheduler.clusterSynced(clusterName, result, Instant.now());
+    }
+
+    /**
+     * Cloud Passports are reloaded from git at most once per synchronization interval, because scheduled runs start more often than that.
+     */
+    private List<CloudPassport> loadCloudPassports(boolean forced, Instant now) {
+        if (forced || cloudPassports == null || !now.isBefore(cloudPassportsLoadedAt.plus(cloudPassportsRefreshInterval))) {
+            cloudPassports = cloudPassportLoader.loadCloudPassports();
+            cloudPassportsLoadedAt = now;
+            Log.info("Cloud passports loaded for clusters: " + cloudPassports.stream().map(CloudPassport::name).toList());
+        }
+        return cloudPassports;
+    }
+
+    /**
+     * The list without filters and sorting is taken from {@link EnvironmentSnapshot} without db access,
+     * other lists are filtered, sorted and paged in the db.
+     */
+    public EnvironmentPage findEnvironments(EnvironmentQuery query) {
+        if (query.isFiltered() || query.isSorted()) {
+            return environmentRepository.findEnvironmentDTOs(query);
+        }
+        List<EnvironmentDTO> environments = environmentSnapshot.getEnvironments();
+        if (query.limit() == null) {
+            return new EnvironmentPage(environments, environments.size());
+        }
+        long from = Math.min((long) query.page() * query.limit(), environments.size());
+        long to = Math.min(from + query.limit(), environments.size());
+        return new EnvironmentPage(environments.subList((int) from, (int) to), environments.size());
     }
 
-    public List<Cluster> getClusters() {
-        return clusterRepository.findAll().stream().sorted(Comparator.comparing(Cluster::getName)).toList();
+    public List<ClusterDTO> getClusters() {
+        return clusterRepository.listClusterDTOs();
     }
 
 
@@ -101,6 +212,7 @@ public void saveEnvironment(String id, String name, String owner, String descrip
         environment.setExpirationDate(expirationDate);
         environment.setLabels(labels);
         environmentRepository.persist(environment);
+        environmentsChanged.fire(new EnvironmentsChanged("environment " + id + " is saved"));
     }
 
     @Transactional
@@ -113,6 +225,7 @@ public void saveCluster(String clusterName, String description) {
         cluster.setDescription(description);
 
         clusterRepository.persist(cluster);
+        environmentsChanged.fire(new EnvironmentsChanged("cluster " + clusterName + " is saved"));
     }
 
     @Transactional
@@ -121,5 +234,6 @@ public void deleteEnvironment(String id) {
         if (!found) {
             throw new IllegalArgumentException("Environment with id " + id + " not found");
         }
+        environmentsChanged.fire(new EnvironmentsChanged("environment " + id + " is deleted"));
     }
 }
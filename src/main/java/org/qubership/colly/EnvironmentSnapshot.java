@@ -0,0 +1,51 @@
+package org.qubership.colly;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.qubership.colly.db.EnvironmentRepository;
+import org.qubership.colly.dto.EnvironmentDTO;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable list of all environments sorted by cluster and name, served by the environments API without db access.
+ * <p>
+ * The snapshot is outdated when {@link InventoryVersion} is increased, the next read rebuilds it once and publishes
+ * the new list for all following reads.
+ */
+@ApplicationScoped
+public class EnvironmentSnapshot {
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    @Inject
+    EnvironmentRepository environmentRepository;
+
+    @Inject
+    InventoryVersion inventoryVersion;
+
+    public List<EnvironmentDTO> getEnvironments() {
+        Snapshot current = snapshot.get();
+        if (current != null && current.version() == inventoryVersion.get()) {
+            return current.environments();
+        }
+        return rebuild();
+    }
+
+    private synchronized List<EnvironmentDTO> rebuild() {
+        //the version is taken before loading, so changes committed during loading make the new snapshot outdated at once
+        long loadedVersion = inventoryVersion.get();
+        Snapshot current = snapshot.get();
+        if (current != null && current.version() == loadedVersion) {
+            return current.environments();
+        }
+        List<EnvironmentDTO> environments = QuarkusTransaction.requiringNew().call(environmentRepository::listEnvironmentDTOs);
+        snapshot.set(new Snapshot(loadedVersion, environments));
+        return environments;
+    }
+
+    private record Snapshot(long version, List<EnvironmentDTO> environments) {
+    }
+}
@@ -0,0 +1,9 @@
+package org.qubership.colly;
+
+/**
+ * Fired inside the transaction that changes environments or their clusters, so {@link InventoryVersion} is increased after the commit.
+ *
+ * @param reason what is changed, for logging
+ */
+public record EnvironmentsChanged(String reason) {
+}
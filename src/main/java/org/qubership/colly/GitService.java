@@ -2,23 +2,93 @@
 
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
 
 import java.io.File;
+import java.io.IOException;
 
 @ApplicationScoped
 public class GitService {
-    public void cloneRepository(String repositoryUrl, File destinationPath) {
+
+    private static final String REMOTE_NAME = "origin";
+
+    /**
+     * Brings the working copy in destinationPath to the state of the remote default branch.
+     * An existing clone of the same repository is updated with fetch and hard reset, otherwise the folder is cloned from scratch.
+     *
+     * @return id of the HEAD commit after the update
+     */
+    public String cloneOrUpdateRepository(String repositoryUrl, File destinationPath) {
+        if (new File(destinationPath, Constants.DOT_GIT).isDirectory()) {
+            try (Git git = Git.open(destinationPath)) {
+                String remoteUrl = git.getRepository().getConfig().getString("remote", REMOTE_NAME, "url");
+                if (repositoryUrl.equals(remoteUrl)) {
+                    return updateRepository(git, repositoryUrl);
+                }
+                Log.info("Repository in " + destinationPath + " points to another remote. It will be cloned again.");
+            } catch (IOException | GitAPIException | RuntimeException e) {
+                Log.warn("Unable to update repository " + repositoryUrl + " in " + destinationPath + ". It will be cloned again. " + e.getMessage());
+            }
+        }
+        deleteDirectory(destinationPath);
+        return cloneRepository(repositoryUrl, destinationPath);
+    }
+
+    private String cloneRepository(String repositoryUrl, File destinationPath) {
         Log.info("Cloning repository from " + repositoryUrl + " to " + destinationPath);
-        try {
-            Git.cloneRepository()
-                    .setURI(repositoryUrl)
-                    .setDirectory(destinationPath)
-                    .call();
-        } catch (GitAPIException e) {
+        try (Git git = Git.cloneRepository()
+                .setURI(repositoryUrl)
+                .setDirectory(destinationPath)
+                .call()) {
+            String head = resolveHead(git.getRepository());
+            Log.info("Repository cloned. HEAD is " + head);
+            return head;
+        } catch (GitAPIException | IOException e) {
             throw new IllegalStateException("Error during clone repository: " + repositoryUrl, e);
         }
-        Log.info("Repository cloned.");
+    }
+
+    private String updateRepository(Git git, String repositoryUrl) throws GitAPIException, IOException {
+        Repository repository = git.getRepository();
+        git.fetch()
+                .setRemote(REMOTE_NAME)
+                .setRemoveDeletedRefs(true)
+                .call();
+        String remoteBranch = Constants.R_REMOTES + REMOTE_NAME + "/" + repository.getBranch();
+        if (repository.resolve(remoteBranch) == null) {
+            throw new IllegalStateException("Branch " + remoteBranch + " is not found after fetch of " + repositoryUrl);
+        }
+        git.reset()
+                .setMode(ResetCommand.ResetType.HARD)
+                .setRef(remoteBranch)
+                .call();
+        git.clean()
+                .setCleanDirectories(true)
+                .setForce(true)
+                .call();
+        String head = resolveHead(repository);
+        Log.info("Repository " + repositoryUrl + " updated. HEAD is " + head);
+        return head;
+    }
+
+    private String resolveHead(Repository repository) throws IOException {
+        ObjectId head = repository.resolve(Constants.HEAD);
+        return head == null ? null : head.name();
+    }
+
+    private void deleteDirectory(File directory) {
+        try {
+            if (directory.exists()) {
+                FileUtils.deleteDirectory(directory);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to clean directory: " + directory, e);
+        }
     }
 }
@@ -0,0 +1,35 @@
+package org.qubership.colly;
+
+import io.quarkus.logging.Log;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing version of clusters and environments in the db. It is increased only after a committed
+ * {@link EnvironmentsChanged}, so synchronization runs that change nothing keep the version and ETags of the inventory.
+ * Data read after taking a version is at least as new as the version.
+ * <p>
+ * The version starts from zero on every start of the application, so ETags also contain the start time of the instance.
+ */
+@ApplicationScoped
+public class InventoryVersion {
+
+    private final String instanceId = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong version = new AtomicLong();
+
+    public long get() {
+        return version.get();
+    }
+
+    public String etag(long version) {
+        return instanceId + "-" + version;
+    }
+
+    void environmentsChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) EnvironmentsChanged event) {
+        Log.debug("Inventory is changed: " + event.reason());
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,195 @@
+package org.qubership.colly;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.util.ClientBuilder;
+import io.kubernetes.client.util.credentials.AccessTokenAuthentication;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.qubership.colly.cloudpassport.CloudPassport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps one Kubernetes {@link ApiClient} per cluster, so connections and TLS sessions survive between synchronizations.
+ * All clients share one connection pool and one dispatcher. A client is replaced when API host or token of the cluster changes.
+ * Decisions made for a client, like the denied cluster-wide listing of config maps, are kept with it and reset with the client.
+ */
+@ApplicationScoped
+public class KubernetesClientRegistry {
+
+    private final Map<String, RegisteredClient> clients = new ConcurrentHashMap<>();
+    private final Dispatcher dispatcher = new Dispatcher();
+    private final AtomicLong createdClients = new AtomicLong();
+    private final AtomicLong reusedClients = new AtomicLong();
+    private final AtomicLong evictedClients = new AtomicLong();
+
+    private ConnectionPool connectionPool;
+
+    @ConfigProperty(name = "colly.kubernetes-client.max-idle-connections")
+    int maxIdleConnections;
+
+    @ConfigProperty(name = "colly.kubernetes-client.keep-alive")
+    Duration keepAlive;
+
+    @ConfigProperty(name = "colly.kubernetes-client.connect-timeout")
+    Duration connectTimeout;
+
+    @ConfigProperty(name = "colly.kubernetes-client.read-timeout")
+    Duration readTimeout;
+
+    @ConfigProperty(name = "colly.config-map.versions.cluster-wide-listing-retry-interval")
+    Duration clusterWideListingRetryInterval;
+
+    @PostConstruct
+    void init() {
+        connectionPool = new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public ApiClient getClient(CloudPassport cloudPassport) {
+        ClientKey key = ClientKey.of(cloudPassport);
+        return clients.compute(cloudPassport.name(), (clusterName, registered) -> {
+            if (registered != null && registered.key().equals(key)) {
+                reusedClients.incrementAndGet();
+                return registered;
+            }
+            if (registered != null) {
+                Log.info("Cloud passport of cluster " + clusterName + " is changed. Kubernetes client will be recreated.");
+                evictedClients.incrementAndGet();
+            }
+            createdClients.incrementAndGet();
+            return new RegisteredClient(key, createClient(cloudPassport), new AtomicReference<>());
+        }).client();
+    }
+
+    /**
+     * @return true if the cluster-wide listing of config maps was denied for the current API host and token of the cluster
+     * less than {@code colly.config-map.versions.cluster-wide-listing-retry-interval} ago
+     */
+    public boolean isClusterWideListingDenied(CloudPassport cloudPassport, Instant now) {
+        RegisteredClient registered = findRegistered(cloudPassport);
+        if (registered == null) {
+            return false;
+        }
+        Instant deniedAt = registered.clusterWideListingDeniedAt().get();
+        return deniedAt != null && now.isBefore(deniedAt.plus(clusterWideListingRetryInterval));
+    }
+
+    /**
+     * Remembers that the token of the cluster can't list config maps in all namespaces. The listing is tried again
+     * after the retry interval, so permissions granted later are picked up, or at once when the client is replaced.
+     */
+    public void denyClusterWideListing(CloudPassport cloudPassport, Instant now) {
+        RegisteredClient registered = findRegistered(cloudPassport);
+        if (registered != null) {
+            registered.clusterWideListingDeniedAt().set(now);
+        }
+    }
+
+    /**
+     * Creates a client for long-running watch requests. It is not cached and has no read timeout, connections are taken from the shared pool.
+     */
+    public ApiClient createWatchClient(CloudPassport cloudPassport) {
+        ApiClient client = createClient(cloudPassport);
+        client.setReadTimeout(0);
+        return client;
+    }
+
+    /**
+     * Removes clients of clusters that are not present in Cloud Passports anymore.
+     */
+    public void retainClusters(Collection<String> clusterNames) {
+        clients.keySet().removeIf(clusterName -> {
+            if (clusterNames.contains(clusterName)) {
+                return false;
+            }
+            Log.info("Cluster " + clusterName + " is removed from Cloud Passports. Kubernetes client is evicted.");
+            evictedClients.incrementAndGet();
+            return true;
+        });
+    }
+
+    public Stats stats() {
+        return new Stats(clients.size(),
+                connectionPool.connectionCount(),
+                connectionPool.idleConnectionCount(),
+                dispatcher.runningCallsCount(),
+                dispatcher.queuedCallsCount(),
+                createdClients.get(),
+                reusedClients.get(),
+                evictedClients.get());
+    }
+
+    @PreDestroy
+    void close() {
+        clients.clear();
+        connectionPool.evictAll();
+        dispatcher.executorService().shutdown();
+    }
+
+    private RegisteredClient findRegistered(CloudPassport cloudPassport) {
+        RegisteredClient registered = clients.get(cloudPassport.name());
+        return registered != null && registered.key().equals(ClientKey.of(cloudPassport)) ? registered : null;
+    }
+
+    private ApiClient createClient(CloudPassport cloudPassport) {
+        try {
+            ApiClient client = ClientBuilder.standard()
+                    .setAuthentication(new AccessTokenAuthentication(cloudPassport.token()))
+                    .setBasePath(cloudPassport.cloudApiHost())
+                    .setVerifyingSsl(false)
+                    .build();
+            client.setHttpClient(client.getHttpClient().newBuilder()
+                    .connectionPool(connectionPool)
+                    .dispatcher(dispatcher)
+                    .connectTimeout(connectTimeout)
+                    .readTimeout(readTimeout)
+                    .writeTimeout(readTimeout)
+                    .build());
+            return client;
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't create Kubernetes client for cluster " + cloudPassport.name(), e);
+        }
+    }
+
+    private record RegisteredClient(ClientKey key, ApiClient client, AtomicReference<Instant> clusterWideListingDeniedAt) {
+    }
+
+    private record ClientKey(String clusterName, String cloudApiHost, String tokenHash) {
+        static ClientKey of(CloudPassport cloudPassport) {
+            return new ClientKey(cloudPassport.name(), cloudPassport.cloudApiHost(), sha256(cloudPassport.token()));
+        }
+
+        private static String sha256(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+                return HexFormat.of().formatHex(digest);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    public record Stats(int clients, int connections, int idleConnections, int runningCalls, int queuedCalls,
+                        long createdClients, long reusedClients, long evictedClients) {
+    }
+}
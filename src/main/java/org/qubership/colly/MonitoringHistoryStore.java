@@ -0,0 +1,209 @@
+package org.qubership.colly;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.qubership.colly.db.EnvironmentRepository;
+import org.qubership.colly.db.MonitoringHistoryRepository;
+import org.qubership.colly.db.data.Environment;
+import org.qubership.colly.db.data.MonitoringHistory;
+import org.qubership.colly.dto.MonitoringHistoryDTO;
+import org.qubership.colly.dto.MonitoringPointDTO;
+import org.qubership.colly.monitoring.MonitoringSeries;
+import org.qubership.colly.monitoring.MonitoringSeries.Resolution;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps history of numeric monitoring values of environments as {@link MonitoringSeries} with raw, 5 minutes and 1 hour resolutions.
+ * Series are kept in memory and series changed since the previous flush are written to the db every {@code colly.monitoring-history.flush-interval},
+ * so a refresh of monitoring data does not write history rows. Series are loaded from the db on the first use.
+ * History of environments that are removed from the db is deleted on flush.
+ */
+@ApplicationScoped
+public class MonitoringHistoryStore {
+
+    private final Map<SeriesKey, MonitoringSeries> series = new ConcurrentHashMap<>();
+    private final Map<SeriesKey, Long> ids = new ConcurrentHashMap<>();
+    private final Set<SeriesKey> changedSeries = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    @Inject
+    MonitoringHistoryRepository monitoringHistoryRepository;
+
+    @Inject
+    EnvironmentRepository environmentRepository;
+
+    @ConfigProperty(name = "colly.monitoring-history.enabled")
+    boolean enabled;
+
+    @ConfigProperty(name = "colly.monitoring-history.raw-retention")
+    Duration rawRetention;
+
+    @ConfigProperty(name = "colly.monitoring-history.five-minutes-retention")
+    Duration fiveMinutesRetention;
+
+    @ConfigProperty(name = "colly.monitoring-history.one-hour-retention")
+    Duration oneHourRetention;
+
+    /**
+     * Adds numeric values of the environment to its history. Values that are not numbers are skipped.
+     */
+    public void record(String clusterName, String environmentName, Map<String, String> values, Instant timestamp) {
+        if (!enabled || values.isEmpty()) {
+            return;
+        }
+        ensureLoaded();
+        values.forEach((parameter, value) -> {
+            double number;
+            try {
+                number = Double.parseDouble(value);
+            } catch (NumberFormatException | NullPointerException e) {
+                return;
+            }
+            SeriesKey key = new SeriesKey(clusterName, environmentName, parameter);
+            series.computeIfAbsent(key, k -> new MonitoringSeries(capacities())).record(timestamp, number);
+            changedSeries.add(key);
+        });
+    }
+
+    /**
+     * @param resolution resolution label or null to select the finest resolution that keeps the start of the range
+     */
+    public MonitoringHistoryDTO getHistory(String environmentId, String parameter, Instant from, Instant to, String resolution) {
+        Environment environment = environmentRepository.findById(Long.valueOf(environmentId));
+        if (environment == null) {
+            throw new IllegalArgumentException("Environment with id " + environmentId + " not found");
+        }
+        if (parameter == null || parameter.isBlank()) {
+            throw new IllegalArgumentException("Monitoring parameter is not defined");
+        }
+        Instant end = to == null ? Instant.now() : to;
+        Instant start = from == null ? end.minus(Duration.ofHours(1)) : from;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Start of the range " + start + " is after its end " + end);
+        }
+        Resolution selectedResolution = resolution == null ? selectResolution(start) : Resolution.fromLabel(resolution);
+        ensureLoaded();
+        MonitoringSeries monitoringSeries = series.get(new SeriesKey(environment.getCluster().getName(), environment.getName(), parameter));
+        List<MonitoringPointDTO> points = monitoringSeries == null ? List.of() : monitoringSeries.range(selectedResolution, start, end).stream()
+                .map(point -> new MonitoringPointDTO(point.timestamp(), point.value()))
+                .toList();
+        return new MonitoringHistoryDTO(parameter, selectedResolution.label(), points);
+    }
+
+    @Scheduled(every = "{colly.monitoring-history.flush-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    void close() {
+        if (loaded && !changedSeries.isEmpty()) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes series changed since the previous flush to the db and deletes history of removed environments.
+     */
+    void flush() {
+        if (!enabled || !loaded) {
+            return;
+        }
+        List<SeriesKey> keys = List.copyOf(changedSeries);
+        changedSeries.removeAll(keys);
+        Map<SeriesKey, Long> createdIds = new HashMap<>();
+        long deleted;
+        try {
+            deleted = QuarkusTransaction.requiringNew().call(() -> {
+                for (SeriesKey key : keys) {
+                    MonitoringSeries monitoringSeries = series.get(key);
+                    if (monitoringSeries == null) {
+                        continue;
+                    }
+                    byte[] data = monitoringSeries.encode();
+                    Long id = ids.get(key);
+                    if (id != null) {
+                        monitoringHistoryRepository.updateData(id, data);
+                    } else {
+                        MonitoringHistory monitoringHistory = new MonitoringHistory(key.clusterName(), key.environmentName(), key.parameter());
+                        monitoringHistory.setData(data);
+                        monitoringHistoryRepository.persist(monitoringHistory);
+                        createdIds.put(key, monitoringHistory.id);
+                    }
+                }
+                return monitoringHistoryRepository.deleteOfRemovedEnvironments();
+            });
+        } catch (RuntimeException e) {
+            //series are written on the next flush
+            changedSeries.addAll(keys);
+            Log.error("Can't write monitoring history. " + e.getMessage());
+            return;
+        }
+        ids.putAll(createdIds);
+        if (deleted > 0) {
+            Set<SeriesKey> existingKeys = QuarkusTransaction.requiringNew().call(this::loadKeys);
+            ids.keySet().removeIf(key -> {
+                if (existingKeys.contains(key)) {
+                    return false;
+                }
+                series.remove(key);
+                return true;
+            });
+        }
+        Log.info("Monitoring history is flushed. Written series: " + keys.size() + ", deleted series: " + deleted + ", series in memory: " + series.size());
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        QuarkusTransaction.requiringNew().run(() -> monitoringHistoryRepository.streamAll().forEach(monitoringHistory -> {
+            SeriesKey key = new SeriesKey(monitoringHistory.getClusterName(), monitoringHistory.getEnvironmentName(), monitoringHistory.getParameter());
+            series.put(key, MonitoringSeries.decode(monitoringHistory.getData(), capacities()));
+            ids.put(key, monitoringHistory.id);
+        }));
+        loaded = true;
+        Log.info("Monitoring history is loaded. Series: " + series.size());
+    }
+
+    private Set<SeriesKey> loadKeys() {
+        Set<SeriesKey> keys = new HashSet<>();
+        monitoringHistoryRepository.streamAll().forEach(monitoringHistory ->
+                keys.add(new SeriesKey(monitoringHistory.getClusterName(), monitoringHistory.getEnvironmentName(), monitoringHistory.getParameter())));
+        return keys;
+    }
+
+    private Resolution selectResolution(Instant start) {
+        Instant now = Instant.now();
+        if (!start.isBefore(now.minus(rawRetention))) {
+            return Resolution.RAW;
+        }
+        if (!start.isBefore(now.minus(fiveMinutesRetention))) {
+            return Resolution.FIVE_MINUTES;
+        }
+        return Resolution.ONE_HOUR;
+    }
+
+    private int[] capacities() {
+        return new int[]{
+                capacity(rawRetention, Resolution.RAW),
+                capacity(fiveMinutesRetention, Resolution.FIVE_MINUTES),
+                capacity(oneHourRetention, Resolution.ONE_HOUR)};
+    }
+
+    private static int capacity(Duration retention, Resolution resolution) {
+        return (int) Math.max(1, retention.dividedBy(resolution.step()));
+    }
+
+    private record SeriesKey(String clusterName, String environmentName, String parameter) {
+    }
+}
@@ -0,0 +1,194 @@
+package org.qubership.colly;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.qubership.colly.cloudpassport.CloudPassport;
+import org.qubership.colly.cloudpassport.CloudPassportEnvironment;
+import org.qubership.colly.cloudpassport.CloudPassportNamespace;
+import org.qubership.colly.db.EnvironmentRepository;
+import org.qubership.colly.db.data.Environment;
+import org.qubership.colly.monitoring.MonitoringService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Refreshes monitoring data of environments on its own schedule, separately from the synchronization with Kubernetes,
+ * so a slow monitoring does not delay synchronization of clusters and does not hold their db transactions.
+ * <p>
+ * Loaded values are cached by environment and only environments whose values differ from the cache are written to the db.
+ * Values that can't be refreshed during {@code colly.monitoring-refresh.ttl}, e.g. because monitoring is not available, are expired
+ * and cleared in the db, so outdated values are not shown forever.
+ * <p>
+ * Every refresh adds loaded values to {@link MonitoringHistoryStore}.
+ */
+@ApplicationScoped
+public class MonitoringRefresher {
+
+    private final Map<String, CloudPassport> cloudPassports = new ConcurrentHashMap<>();
+    private final Map<EnvironmentKey, CachedMonitoringData> cache = new ConcurrentHashMap<>();
+
+    @Inject
+    MonitoringService monitoringService;
+
+    @Inject
+    EnvironmentRepository environmentRepository;
+
+    @Inject
+    ClusterSyncExecutor clusterSyncExecutor;
+
+    @Inject
+    MonitoringHistoryStore monitoringHistoryStore;
+
+    @Inject
+    Event<EnvironmentsChanged> environmentsChanged;
+
+    @ConfigProperty(name = "colly.monitoring-refresh.parallelism")
+    int parallelism;
+
+    @ConfigProperty(name = "colly.monitoring-refresh.ttl")
+    Duration ttl;
+
+    /**
+     * Clusters are taken from Cloud Passports loaded by the synchronization. Cached values of removed clusters and environments are dropped.
+     */
+    public void retainClusters(Collection<CloudPassport> cloudPassports) {
+        Map<String, CloudPassport> cloudPassportsByName = cloudPassports.stream()
+                .collect(Collectors.toMap(CloudPassport::name, cloudPassport -> cloudPassport, (first, second) -> second));
+        this.cloudPassports.keySet().retainAll(cloudPassportsByName.keySet());
+        this.cloudPassports.putAll(cloudPassportsByName);
+        Set<EnvironmentKey> environmentKeys = new HashSet<>();
+        cloudPassports.forEach(cloudPassport -> cloudPassport.environments().forEach(environment ->
+                environmentKeys.add(new EnvironmentKey(cloudPassport.name(), environment.name()))));
+        cache.keySet().retainAll(environmentKeys);
+    }
+
+    @Scheduled(every = "{colly.monitoring-refresh.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRefresh() {
+        refresh(Instant.now());
+    }
+
+    /**
+     * @return number of environments whose monitoring data is written to the db
+     */
+    int refresh(Instant now) {
+        List<CloudPassport> clusters = cloudPassports.values().stream()
+                .filter(cloudPassport -> cloudPassport.monitoringUrl() != null)
+                .toList();
+        if (clusters.isEmpty()) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        Map<CloudPassport, Integer> writtenEnvironments = clusterSyncExecutor.mapConcurrently(clusters, cloudPassport -> refreshCluster(cloudPassport, now), parallelism);
+        int written = writtenEnvironments.values().stream().mapToInt(Integer::intValue).sum();
+        Log.info("Monitoring data is refreshed for " + clusters.size() + " clusters in " + (System.currentTimeMillis() - start)
+                + " ms. Environments written to db: " + written);
+        return written;
+    }
+
+    private int refreshCluster(CloudPassport cloudPassport, Instant now) {
+        try {
+            Map<String, List<String>> namespaceNamesByEnvironment = new LinkedHashMap<>();
+            cloudPassport.environments().forEach(environment -> namespaceNamesByEnvironment.put(environment.name(),
+                    environment.namespaceDtos().stream().map(CloudPassportNamespace::name).toList()));
+            Map<String, Map<String, String>> monitoringData = loadMonitoringData(cloudPassport, namespaceNamesByEnvironment);
+            monitoringData.forEach((environmentName, values) -> monitoringHistoryStore.record(cloudPassport.name(), environmentName, values, now));
+
+            Map<String, Map<String, String>> changedData = new HashMap<>();
+            for (CloudPassportEnvironment environment : cloudPassport.environments()) {
+                EnvironmentKey key = new EnvironmentKey(cloudPassport.name(), environment.name());
+                Map<String, String> values = monitoringData.get(environment.name());
+                CachedMonitoringData cached = cache.get(key);
+                if (values != null) {
+                    if (cached == null || !values.equals(cached.values())) {
+                        changedData.put(environment.name(), values);
+                    } else {
+                        cache.put(key, new CachedMonitoringData(values, now));
+                    }
+                } else if (cached == null) {
+                    //values in the db are unknown, they are expired if monitoring is not available during ttl from now
+                    cache.put(key, new CachedMonitoringData(null, now));
+                } else if (cached.isExpired(now, ttl) && !Map.of().equals(cached.values())) {
+                    Log.warn("Monitoring data of environment " + environment.name() + " of cluster " + cloudPassport.name()
+                            + " is not refreshed since " + cached.refreshedAt() + ". Values are expired.");
+                    changedData.put(environment.name(), Map.of());
+                }
+            }
+            if (changedData.isEmpty()) {
+                return 0;
+            }
+            Set<String> writtenEnvironments = QuarkusTransaction.requiringNew().call(() -> writeMonitoringData(cloudPassport.name(), changedData));
+            writtenEnvironments.forEach(environmentName -> {
+                EnvironmentKey key = new EnvironmentKey(cloudPassport.name(), environmentName);
+                Map<String, String> values = changedData.get(environmentName);
+                //expired values keep the time of the last refresh, so they are not cleared again
+                Instant refreshedAt = monitoringData.containsKey(environmentName) ? now : cache.get(key).refreshedAt();
+                cache.put(key, new CachedMonitoringData(values, refreshedAt));
+            });
+            return writtenEnvironments.size();
+        } catch (RuntimeException e) {
+            Log.error("Can't refresh monitoring data of cluster " + cloudPassport.name() + ". " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * @return names of environments whose values are applied. Environments that are not created by the synchronization yet are skipped
+     */
+    private Set<String> writeMonitoringData(String clusterName, Map<String, Map<String, String>> monitoringData) {
+        List<Environment> environments = environmentRepository.list("cluster.name = ?1 and name in ?2", clusterName, monitoringData.keySet());
+        Set<String> writtenEnvironments = new HashSet<>();
+        boolean changed = false;
+        for (Environment environment : environments) {
+            Map<String, String> values = monitoringData.get(environment.getName());
+            //replacing the collection makes hibernate delete and insert all its rows, so it is replaced only if values are changed
+            if (!values.equals(environment.getMonitoringData())) {
+                environment.setMonitoringData(new HashMap<>(values));
+                changed = true;
+            }
+            writtenEnvironments.add(environment.getName());
+        }
+        if (changed) {
+            environmentsChanged.fire(new EnvironmentsChanged("monitoring data of cluster " + clusterName + " is refreshed"));
+        }
+        return writtenEnvironments;
+    }
+
+    /**
+     * Waits for monitoring data of all environments of the cluster, see {@link MonitoringService#loadEnvironmentsMonitoringData(java.net.URI, Map)}.
+     */
+    private Map<String, Map<String, String>> loadMonitoringData(CloudPassport cloudPassport, Map<String, List<String>> namespaceNamesByEnvironment) {
+        CompletableFuture<Map<String, Map<String, String>>> future = monitoringService.loadEnvironmentsMonitoringData(cloudPassport.monitoringUrl(), namespaceNamesByEnvironment);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Monitoring refresh is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to load monitoring data of cluster " + cloudPassport.name(), e.getCause());
+        }
+    }
+
+    private record EnvironmentKey(String clusterName, String environmentName) {
+    }
+
+    /**
+     * @param values values written to the db or null if they are unknown
+     */
+    private record CachedMonitoringData(Map<String, String> values, Instant refreshedAt) {
+        boolean isExpired(Instant now, Duration ttl) {
+            return !now.isBefore(refreshedAt.plus(ttl));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.qubership.colly;
+
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.qubership.colly.dto.SyncStatus;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Makes sure only one synchronization run is active. A trigger received during a run is not started in parallel:
+ * all such triggers are coalesced into one follow-up run that starts when the current run is completed.
+ */
+@ApplicationScoped
+public class SyncCoordinator {
+
+    private final CollyStorage collyStorage;
+    private final ClusterSyncScheduler clusterSyncScheduler;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("sync-run-", 0).factory());
+
+    private boolean running;
+    private boolean followUpRunPending;
+    private String followUpTrigger;
+    private boolean followUpForced;
+    private volatile SyncRun currentRun;
+    private volatile SyncRun lastRun;
+
+    @Inject
+    public SyncCoordinator(CollyStorage collyStorage, ClusterSyncScheduler clusterSyncScheduler) {
+        this.collyStorage = collyStorage;
+        this.clusterSyncScheduler = clusterSyncScheduler;
+    }
+
+    /**
+     * Scheduled runs synchronize only clusters which synchronization time has come, see {@link ClusterSyncScheduler}.
+     */
+    @Scheduled(cron = "{cron.schedule}")
+    void scheduledSync() {
+        trigger("schedule", false);
+    }
+
+    /**
+     * Starts a synchronization run of all clusters.
+     *
+     * @see #trigger(String, boolean)
+     */
+    public boolean trigger(String trigger) {
+        return trigger(trigger, true);
+    }
+
+    /**
+     * Starts a synchronization run in background or schedules a follow-up run if a run is already active.
+     * The follow-up run synchronizes all clusters if any of coalesced triggers is forced.
+     *
+     * @return true if a new run is started, false if the trigger is coalesced into the follow-up run
+     */
+    public synchronized boolean trigger(String trigger, boolean forced) {
+        if (running) {
+            Log.info("Synchronization is already running. Trigger '" + trigger + "' is coalesced into the follow-up run.");
+            followUpRunPending = true;
+            if (followUpTrigger == null) {
+                followUpTrigger = trigger;
+            }
+            followUpForced |= forced;
+            return false;
+        }
+        running = true;
+        runner.execute(() -> runSynchronization(trigger, forced));
+        return true;
+    }
+
+    public synchronized SyncStatus getStatus() {
+        SyncRun current = currentRun;
+        SyncRun last = lastRun;
+        return new SyncStatus(running, followUpRunPending,
+                current == null ? null : current.toStatus(),
+                last == null ? null : last.toStatus(),
+                clusterSyncScheduler.getStatus());
+    }
+
+    private void runSynchronization(String trigger, boolean forced) {
+        String nextTrigger = trigger;
+        boolean nextForced = forced;
+        while (nextTrigger != null) {
+            SyncRun syncRun = new SyncRun(nextTrigger, nextForced);
+            currentRun = syncRun;
+            try {
+                collyStorage.executeTask(syncRun);
+            } catch (RuntimeException e) {
+                Log.error("Synchronization run failed", e);
+            } finally {
+                syncRun.finished();
+            }
+            synchronized (this) {
+                //scheduled runs without due clusters would replace progress of the last real run in the status
+                if (syncRun.hasScheduledClusters()) {
+                    lastRun = syncRun;
+                }
+                currentRun = null;
+                nextTrigger = followUpRunPending ? followUpTrigger : null;
+                nextForced = followUpForced;
+                followUpRunPending = false;
+                followUpTrigger = null;
+                followUpForced = false;
+                running = nextTrigger != null;
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        runner.shutdownNow();
+    }
+}
@@ -0,0 +1,98 @@
+package org.qubership.colly;
+
+import org.qubership.colly.dto.ClusterSyncStatus;
+import org.qubership.colly.dto.SyncRunStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress of one synchronization run. It is updated by synchronization threads and read by the status endpoint.
+ */
+public class SyncRun {
+
+    private final String trigger;
+    private final boolean forced;
+    private final Instant startedAt = Instant.now();
+    private final Map<String, ClusterProgress> clusters = new LinkedHashMap<>();
+    private Instant finishedAt;
+
+    /**
+     * @param forced if true, all clusters are synchronized, otherwise only clusters which synchronization time has come
+     */
+    public SyncRun(String trigger, boolean forced) {
+        this.trigger = trigger;
+        this.forced = forced;
+    }
+
+    boolean isForced() {
+        return forced;
+    }
+
+    synchronized void clustersScheduled(Collection<String> clusterNames) {
+        clusterNames.forEach(clusterName -> clusters.put(clusterName, new ClusterProgress()));
+    }
+
+    synchronized boolean hasScheduledClusters() {
+        return !clusters.isEmpty();
+    }
+
+    synchronized void clusterStarted(String clusterName) {
+        clusters.computeIfAbsent(clusterName, name -> new ClusterProgress()).startedAt = Instant.now();
+    }
+
+    synchronized void clusterCompleted(String clusterName, ClusterSyncResult result, Throwable error) {
+        ClusterProgress progress = clusters.computeIfAbsent(clusterName, name -> new ClusterProgress());
+        progress.finishedAt = Instant.now();
+        progress.result = result;
+        progress.error = error == null ? null : error.getMessage();
+        progress.failed = error != null || result == ClusterSyncResult.FAILED;
+    }
+
+    synchronized List<String> unfinishedClusters() {
+        return clusters.entrySet().stream()
+                .filter(entry -> entry.getValue().finishedAt == null)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    synchronized void finished() {
+        finishedAt = Instant.now();
+    }
+
+    synchronized SyncRunStatus toStatus() {
+        Instant now = Instant.now();
+        List<ClusterSyncStatus> clusterStatuses = clusters.entrySet().stream()
+                .map(entry -> entry.getValue().toStatus(entry.getKey(), now))
+                .toList();
+        int completed = (int) clusters.values().stream().filter(progress -> progress.finishedAt != null).count();
+        return new SyncRunStatus(trigger, startedAt, finishedAt,
+                Duration.between(startedAt, finishedAt == null ? now : finishedAt).toMillis(),
+                clusters.size(), completed, clusterStatuses);
+    }
+
+    private static class ClusterProgress {
+        private Instant startedAt;
+        private Instant finishedAt;
+        private ClusterSyncResult result;
+        private boolean failed;
+        private String error;
+
+        private ClusterSyncStatus toStatus(String clusterName, Instant now) {
+            String state;
+            if (finishedAt != null) {
+                state = failed ? "FAILED" : "COMPLETED";
+            } else if (startedAt == null) {
+                state = "QUEUED";
+            } else {
+                state = "RUNNING";
+            }
+            Long durationMs = startedAt == null ? null : Duration.between(startedAt, finishedAt == null ? now : finishedAt).toMillis();
+            return new ClusterSyncStatus(clusterName, state, result == null ? null : result.name(), startedAt, finishedAt, durationMs, error);
+        }
+    }
+}
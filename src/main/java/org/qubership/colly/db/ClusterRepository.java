@@ -3,6 +3,9 @@
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.qubership.colly.db.data.Cluster;
+import org.qubership.colly.dto.ClusterDTO;
+
+import java.util.List;
 
 @ApplicationScoped
 public class ClusterRepository implements PanacheRepository<Cluster> {
@@ -10,4 +13,12 @@ public class ClusterRepository implements PanacheRepository<Cluster> {
     public Cluster findByName(String name){
         return find("name", name).firstResult();
     }
+
+    /**
+     * Reads all clusters sorted by name straight into DTOs without loading entities.
+     */
+    public List<ClusterDTO> listClusterDTOs() {
+        return getEntityManager().createQuery("select new org.qubership.colly.dto.ClusterDTO(c.name, c.description, c.synced) from clusters c order by c.name",
+                ClusterDTO.class).getResultList();
+    }
 }
@@ -0,0 +1,36 @@
+package org.qubership.colly.db;
+
+import org.qubership.colly.db.data.EnvironmentStatus;
+import org.qubership.colly.db.data.EnvironmentType;
+
+import java.time.LocalDate;
+
+/**
+ * Filters, sorting and page of the environments list. Null filters are not applied.
+ *
+ * @param sort  comma separated sort keys, a key prefixed with {@code -} is sorted in descending order.
+ *              Supported keys are {@link EnvironmentRepository#SORT_KEYS}. Null means sorting by cluster and name
+ * @param page  zero based page number
+ * @param limit page size or null to return all matching environments
+ */
+public record EnvironmentQuery(String cluster,
+                               EnvironmentStatus status,
+                               EnvironmentType type,
+                               String owner,
+                               String team,
+                               String label,
+                               LocalDate expirationFrom,
+                               LocalDate expirationTo,
+                               String sort,
+                               int page,
+                               Integer limit) {
+
+    public boolean isFiltered() {
+        return cluster != null || status != null || type != null || owner != null || team != null || label != null
+                || expirationFrom != null || expirationTo != null;
+    }
+
+    public boolean isSorted() {
+        return sort != null;
+    }
+}
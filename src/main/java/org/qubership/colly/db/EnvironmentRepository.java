@@ -2,11 +2,179 @@
 
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
 import org.qubership.colly.db.data.Environment;
+import org.qubership.colly.db.data.EnvironmentStatus;
+import org.qubership.colly.db.data.EnvironmentType;
+import org.qubership.colly.dto.ClusterDTO;
+import org.qubership.colly.dto.EnvironmentDTO;
+import org.qubership.colly.dto.EnvironmentPage;
+import org.qubership.colly.dto.NamespaceDTO;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
 
 @ApplicationScoped
 public class EnvironmentRepository implements PanacheRepository<Environment> {
+
+    /**
+     * Sort keys of {@link EnvironmentQuery} and their columns.
+     */
+    public static final Map<String, String> SORT_KEYS = sortKeys();
+
+    private static final String ENVIRONMENT_COLUMNS = """
+            select e.id as id, e.name as name, e.owner as owner, e.team as team, e.status as status,
+                   e.expirationDate as expirationDate, e.type as type, e.description as description,
+                   e.deploymentVersion as deploymentVersion, e.cleanInstallationDate as cleanInstallationDate,
+                   c.name as clusterName, c.description as clusterDescription, c.synced as clusterSynced
+            """;
+
     public Environment findByNameAndCluster(String environmentName, String clusterName) {
         return find("name = ?1 and cluster.name = ?2", environmentName, clusterName).firstResult();
     }
+
+    public List<Environment> findByClusterWithNamespaces(String clusterName) {
+        return find("select distinct e from environments e left join fetch e.namespaces where e.cluster.name = ?1", clusterName).list();
+    }
+
+    /**
+     * Reads all environments sorted by cluster and name straight into DTOs without loading entities.
+     * Columns of environments and their clusters are read with one query and every collection with one more query,
+     * so the number of queries does not depend on the number of environments.
+     */
+    public List<EnvironmentDTO> listEnvironmentDTOs() {
+        List<Tuple> environments = getEntityManager().createQuery(ENVIRONMENT_COLUMNS
+                + "from environments e join e.cluster c order by c.name, e.name", Tuple.class).getResultList();
+        return toDTOs(environments, null);
+    }
+
+    /**
+     * Filters, sorts and pages environments in the db. Collections are read only for environments of the page.
+     */
+    public EnvironmentPage findEnvironmentDTOs(EnvironmentQuery query) {
+        StringJoiner where = new StringJoiner(" and ", " where ", "").setEmptyValue("");
+        Map<String, Object> parameters = new HashMap<>();
+        addFilter(where, parameters, "c.name = :cluster", "cluster", query.cluster());
+        addFilter(where, parameters, "e.status = :status", "status", query.status());
+        addFilter(where, parameters, "e.type = :type", "type", query.type());
+        addFilter(where, parameters, "e.owner = :owner", "owner", query.owner());
+        addFilter(where, parameters, "e.team = :team", "team", query.team());
+        addFilter(where, parameters, ":label member of e.labels", "label", query.label());
+        addFilter(where, parameters, "e.expirationDate >= :expirationFrom", "expirationFrom", query.expirationFrom());
+        addFilter(where, parameters, "e.expirationDate <= :expirationTo", "expirationTo", query.expirationTo());
+        String from = "from environments e join e.cluster c" + where;
+
+        TypedQuery<Long> countQuery = getEntityManager().createQuery("select count(e) " + from, Long.class);
+        parameters.forEach(countQuery::setParameter);
+        long total = countQuery.getSingleResult();
+        if (total == 0) {
+            return new EnvironmentPage(List.of(), 0);
+        }
+        TypedQuery<Tuple> environmentsQuery = getEntityManager().createQuery(ENVIRONMENT_COLUMNS + from + " order by " + orderBy(query.sort()), Tuple.class);
+        parameters.forEach(environmentsQuery::setParameter);
+        if (query.limit() != null) {
+            environmentsQuery.setFirstResult(query.page() * query.limit());
+            environmentsQuery.setMaxResults(query.limit());
+        }
+        List<Tuple> environments = environmentsQuery.getResultList();
+        List<Long> ids = environments.stream().map(row -> row.get("id", Long.class)).toList();
+        return new EnvironmentPage(toDTOs(environments, ids), total);
+    }
+
+    /**
+     * @param ids ids of the environments to read collections for, or null to read collections of all environments
+     */
+    private List<EnvironmentDTO> toDTOs(List<Tuple> environments, List<Long> ids) {
+        if (environments.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<NamespaceDTO>> namespaces = new HashMap<>();
+        collectionQuery("select e.id, n.uid, n.name, n.existsInK8s from environments e join e.namespaces n", "n.name", ids)
+                .getResultStream()
+                .forEach(row -> namespaces.computeIfAbsent(row.get(0, Long.class), id -> new ArrayList<>())
+                        .add(new NamespaceDTO(row.get(1, String.class), row.get(2, String.class), row.get(3, Boolean.class))));
+        Map<Long, List<String>> labels = new HashMap<>();
+        collectionQuery("select e.id, l from environments e join e.labels l", "l", ids)
+                .getResultStream()
+                .forEach(row -> labels.computeIfAbsent(row.get(0, Long.class), id -> new ArrayList<>()).add(row.get(1, String.class)));
+        Map<Long, Map<String, String>> monitoringData = new HashMap<>();
+        collectionQuery("select e.id, key(m), value(m) from environments e join e.monitoringData m", "key(m)", ids)
+                .getResultStream()
+                .forEach(row -> monitoringData.computeIfAbsent(row.get(0, Long.class), id -> new HashMap<>())
+                        .put(row.get(1, String.class), row.get(2, String.class)));
+
+        return environments.stream()
+                .map(row -> {
+                    Long id = row.get("id", Long.class);
+                    return new EnvironmentDTO(
+                            id,
+                            row.get("name", String.class),
+                            List.copyOf(namespaces.getOrDefault(id, List.of())),
+                            new ClusterDTO(row.get("clusterName", String.class), row.get("clusterDescription", String.class),
+                                    row.get("clusterSynced", Boolean.class)),
+                            row.get("owner", String.class),
+                            row.get("team", String.class),
+                            row.get("status", EnvironmentStatus.class),
+                            row.get("expirationDate", LocalDate.class),
+                            row.get("type", EnvironmentType.class),
+                            List.copyOf(labels.getOrDefault(id, List.of())),
+                            row.get("description", String.class),
+                            row.get("deploymentVersion", String.class),
+                            row.get("cleanInstallationDate", Instant.class),
+                            Map.copyOf(monitoringData.getOrDefault(id, Map.of())));
+                })
+                .toList();
+    }
+
+    /**
+     * Rows are ordered by environment and the given column, so elements of collections do not depend on the plan of the db.
+     */
+    private TypedQuery<Tuple> collectionQuery(String select, String orderBy, List<Long> ids) {
+        String order = " order by e.id, " + orderBy;
+        if (ids == null) {
+            return getEntityManager().createQuery(select + order, Tuple.class);
+        }
+        return getEntityManager().createQuery(select + " where e.id in :ids" + order, Tuple.class).setParameter("ids", ids);
+    }
+
+    private static void addFilter(StringJoiner where, Map<String, Object> parameters, String condition, String name, Object value) {
+        if (value != null) {
+            where.add(condition);
+            parameters.put(name, value);
+        }
+    }
+
+    /**
+     * Cluster, name and id are always appended, so the order and therefore pages are stable.
+     */
+    private static String orderBy(String sort) {
+        StringJoiner orderBy = new StringJoiner(", ");
+        if (sort != null) {
+            for (String key : sort.split(",")) {
+                String trimmedKey = key.trim();
+                boolean descending = trimmedKey.startsWith("-");
+                String column = SORT_KEYS.get(descending ? trimmedKey.substring(1) : trimmedKey);
+                if (column == null) {
+                    throw new IllegalArgumentException("Unknown sort key " + trimmedKey + ". Supported keys: " + SORT_KEYS.keySet());
+                }
+                orderBy.add(column + (descending ? " desc" : ""));
+            }
+        }
+        return orderBy.add("c.name").add("e.name").add("e.id").toString();
+    }
+
+    private static Map<String, String> sortKeys() {
+        Map<String, String> sortKeys = new LinkedHashMap<>();
+        sortKeys.put("name", "e.name");
+        sortKeys.put("cluster", "c.name");
+        sortKeys.put("owner", "e.owner");
+        sortKeys.put("team", "e.team");
+        sortKeys.put("status", "e.status");
+        sortKeys.put("type", "e.type");
+        sortKeys.put("expirationDate", "e.expirationDate");
+        sortKeys.put("cleanInstallationDate", "e.cleanInstallationDate");
+        return Collections.unmodifiableMap(sortKeys);
+    }
 }
@@ -0,0 +1,22 @@
+package org.qubership.colly.db;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.qubership.colly.db.data.MonitoringHistory;
+
+@ApplicationScoped
+public class MonitoringHistoryRepository implements PanacheRepository<MonitoringHistory> {
+
+    public void updateData(long id, byte[] data) {
+        update("data = ?1 where id = ?2", data, id);
+    }
+
+    /**
+     * Deletes history of environments that are not present in the db anymore.
+     *
+     * @return number of deleted series
+     */
+    public long deleteOfRemovedEnvironments() {
+        return delete("not exists (select e.id from environments e where e.name = environmentName and e.cluster.name = clusterName)");
+    }
+}
@@ -22,6 +22,10 @@ public Namespace findByUid(String uid){
         return find("uid", uid).firstResult();
     }
 
+    public List<Namespace> findByClusterName(String clusterName) {
+        return find("cluster.name", clusterName).list();
+    }
+
     public List<Namespace> findNamespacesByCluster(Cluster cluster) {
         return find("cluster", cluster).list();
     }
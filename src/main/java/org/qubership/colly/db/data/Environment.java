@@ -11,6 +11,15 @@
 import java.util.Map;
 
 @Entity(name = "environments")
+//columns of filters of the environments list
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"cluster_name", "name"}), indexes = {
+        @Index(columnList = "cluster_name"),
+        @Index(columnList = "status"),
+        @Index(columnList = "type"),
+        @Index(columnList = "owner"),
+        @Index(columnList = "team"),
+        @Index(columnList = "expirationDate")
+})
 public class Environment extends PanacheEntity {
 
     private String name;
@@ -40,8 +49,10 @@ public class Environment extends PanacheEntity {
 
     private String deploymentVersion;
 
+    private String inputFingerprint;
+
     @ElementCollection
-    @CollectionTable(name = "environments_labels", joinColumns = @JoinColumn(name = "environment_id"))
+    @CollectionTable(name = "environments_labels", joinColumns = @JoinColumn(name = "environment_id"), indexes = @Index(columnList = "label"))
     @Column(name = "label")
     private List<String> labels;
 
@@ -85,6 +96,14 @@ public void setDeploymentVersion(String deploymentVersion) {
         this.deploymentVersion = deploymentVersion;
     }
 
+    public String getInputFingerprint() {
+        return inputFingerprint;
+    }
+
+    public void setInputFingerprint(String inputFingerprint) {
+        this.inputFingerprint = inputFingerprint;
+    }
+
     public LocalDate getExpirationDate() {
         return expirationDate;
     }
@@ -0,0 +1,51 @@
+package org.qubership.colly.db.data;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Encoded {@link org.qubership.colly.monitoring.MonitoringSeries} of one monitoring parameter of one environment.
+ */
+@Entity(name = "monitoring_history")
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"clusterName", "environmentName", "parameter"}))
+public class MonitoringHistory extends PanacheEntity {
+
+    private String clusterName;
+    private String environmentName;
+    private String parameter;
+
+    @Column(nullable = false)
+    private byte[] data;
+
+    public MonitoringHistory(String clusterName, String environmentName, String parameter) {
+        this.clusterName = clusterName;
+        this.environmentName = environmentName;
+        this.parameter = parameter;
+    }
+
+    public MonitoringHistory() {
+    }
+
+    public String getClusterName() {
+        return clusterName;
+    }
+
+    public String getEnvironmentName() {
+        return environmentName;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,7 @@
+package org.qubership.colly.dto;
+
+import java.time.Instant;
+
+public record ClusterScheduleStatus(String name, Instant nextSyncAt, String lastResult, int consecutiveFailures, int unchangedSyncs,
+                                    String apiCircuitBreaker, String monitoringCircuitBreaker) {
+}
@@ -0,0 +1,6 @@
+package org.qubership.colly.dto;
+
+import java.time.Instant;
+
+public record ClusterSyncStatus(String name, String state, String result, Instant startedAt, Instant finishedAt, Long durationMs, String error) {
+}
@@ -0,0 +1,9 @@
+package org.qubership.colly.dto;
+
+import java.util.List;
+
+/**
+ * @param total number of environments that match the filters on all pages
+ */
+public record EnvironmentPage(List<EnvironmentDTO> environments, long total) {
+}
@@ -0,0 +1,6 @@
+package org.qubership.colly.dto;
+
+import java.util.List;
+
+public record MonitoringHistoryDTO(String parameter, String resolution, List<MonitoringPointDTO> points) {
+}
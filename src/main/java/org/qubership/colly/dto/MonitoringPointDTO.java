@@ -0,0 +1,6 @@
+package org.qubership.colly.dto;
+
+import java.time.Instant;
+
+public record MonitoringPointDTO(Instant timestamp, double value) {
+}
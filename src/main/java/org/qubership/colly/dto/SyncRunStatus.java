@@ -0,0 +1,8 @@
+package org.qubership.colly.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record SyncRunStatus(String trigger, Instant startedAt, Instant finishedAt, long durationMs,
+                            int clustersTotal, int clustersCompleted, List<ClusterSyncStatus> clusters) {
+}
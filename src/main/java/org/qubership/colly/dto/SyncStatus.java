@@ -0,0 +1,7 @@
+package org.qubership.colly.dto;
+
+import java.util.List;
+
+public record SyncStatus(boolean running, boolean followUpRunPending, SyncRunStatus currentRun, SyncRunStatus lastRun,
+                         List<ClusterScheduleStatus> schedule) {
+}
@@ -1,19 +1,42 @@
 package org.qubership.colly.monitoring;
 
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.FormParam;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
+import java.io.Closeable;
+import java.util.concurrent.CompletionStage;
+
 @Path("/api/v1")
 @RegisterRestClient(configKey = "monitoring-api")
-public interface MonitoringClient {
+public interface MonitoringClient extends Closeable {
 
     @GET
     @Path("/query")
     @Produces(MediaType.APPLICATION_JSON)
     MonitoringResponse executeQuery(@QueryParam("query") String query);
 
+    @POST
+    @Path("/query")
+    @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+    @Produces(MediaType.APPLICATION_JSON)
+    MonitoringResponse executeQueryInBody(@FormParam("query") String query);
+
+    @GET
+    @Path("/query")
+    @Produces(MediaType.APPLICATION_JSON)
+    CompletionStage<MonitoringResponse> executeQueryAsync(@QueryParam("query") String query);
+
+    @POST
+    @Path("/query")
+    @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+    @Produces(MediaType.APPLICATION_JSON)
+    CompletionStage<MonitoringResponse> executeQueryInBodyAsync(@FormParam("query") String query);
+
 }
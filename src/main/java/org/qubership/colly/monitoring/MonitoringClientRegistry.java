@@ -0,0 +1,130 @@
+package org.qubership.colly.monitoring;
+
+import io.quarkus.logging.Log;
+import io.quarkus.rest.client.reactive.QuarkusRestClientBuilder;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps one {@link MonitoringClient} per monitoring URI, so its connection pool with keep-alive connections survives between synchronizations.
+ * HTTP/2 is negotiated with ALPN for https URIs, plain http URIs use HTTP/1.1. A client is closed when its URI is not used by any Cloud Passport anymore.
+ * <p>
+ * Queries to one monitoring host are limited by a {@link QueryLimiter} shared by all its URIs.
+ */
+@ApplicationScoped
+public class MonitoringClientRegistry {
+
+    private final Map<URI, MonitoringClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, QueryLimiter> queryLimiters = new ConcurrentHashMap<>();
+    private final AtomicLong createdClients = new AtomicLong();
+    private final AtomicLong reusedClients = new AtomicLong();
+    private final AtomicLong evictedClients = new AtomicLong();
+
+    @ConfigProperty(name = "colly.monitoring-client.connect-timeout")
+    Duration connectTimeout;
+
+    @ConfigProperty(name = "colly.monitoring-client.read-timeout")
+    Duration readTimeout;
+
+    @ConfigProperty(name = "colly.monitoring-client.keep-alive")
+    Duration keepAlive;
+
+    @ConfigProperty(name = "colly.monitoring-client.max-connections")
+    int maxConnections;
+
+    @ConfigProperty(name = "colly.monitoring-client.http2")
+    boolean http2;
+
+    @ConfigProperty(name = "colly.monitoring-client.max-concurrent-queries")
+    int maxConcurrentQueries;
+
+    public MonitoringClient getClient(URI monitoringUri) {
+        MonitoringClient client = clients.get(monitoringUri);
+        if (client != null) {
+            reusedClients.incrementAndGet();
+            return client;
+        }
+        return clients.computeIfAbsent(monitoringUri, uri -> {
+            createdClients.incrementAndGet();
+            return createClient(uri);
+        });
+    }
+
+    QueryLimiter getQueryLimiter(URI monitoringUri) {
+        return queryLimiters.computeIfAbsent(monitoringUri.getAuthority(), host -> new QueryLimiter(maxConcurrentQueries));
+    }
+
+    /**
+     * Closes clients of monitoring URIs that are not present in Cloud Passports anymore.
+     */
+    public void retainMonitoringUris(Collection<URI> monitoringUris) {
+        clients.entrySet().removeIf(entry -> {
+            if (monitoringUris.contains(entry.getKey())) {
+                return false;
+            }
+            Log.info("Monitoring URI " + entry.getKey() + " is not used by Cloud Passports anymore. Monitoring client is closed.");
+            evictedClients.incrementAndGet();
+            close(entry.getValue());
+            return true;
+        });
+        Set<String> monitoringHosts = monitoringUris.stream().map(URI::getAuthority).collect(Collectors.toSet());
+        queryLimiters.keySet().retainAll(monitoringHosts);
+    }
+
+    public Stats stats() {
+        int queuedQueries = queryLimiters.values().stream().mapToInt(QueryLimiter::queuedQueries).sum();
+        return new Stats(clients.size(), createdClients.get(), reusedClients.get(), evictedClients.get(), queuedQueries);
+    }
+
+    @PreDestroy
+    void close() {
+        List.copyOf(clients.values()).forEach(this::close);
+        clients.clear();
+    }
+
+    private MonitoringClient createClient(URI monitoringUri) {
+        HttpClientOptions options = new HttpClientOptions()
+                .setKeepAlive(true)
+                .setKeepAliveTimeout((int) keepAlive.toSeconds())
+                .setMaxPoolSize(maxConnections)
+                .setConnectTimeout((int) connectTimeout.toMillis());
+        if (http2 && "https".equalsIgnoreCase(monitoringUri.getScheme())) {
+            //h2 is used only if the server agrees to it during tls handshake, otherwise connections fall back to HTTP/1.1
+            options.setProtocolVersion(HttpVersion.HTTP_2)
+                    .setUseAlpn(true)
+                    .setHttp2KeepAliveTimeout((int) keepAlive.toSeconds());
+        }
+        return QuarkusRestClientBuilder.newBuilder()
+                .baseUri(monitoringUri)
+                .httpClientOptions(options)
+                .connectTimeout(connectTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .build(MonitoringClient.class);
+    }
+
+    private void close(MonitoringClient client) {
+        try {
+            client.close();
+        } catch (IOException | RuntimeException e) {
+            Log.warn("Can't close monitoring client. " + e.getMessage());
+        }
+    }
+
+    public record Stats(int clients, long createdClients, long reusedClients, long evictedClients, int queuedQueries) {
+    }
+}
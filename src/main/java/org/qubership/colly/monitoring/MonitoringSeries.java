@@ -0,0 +1,202 @@
+package org.qubership.colly.monitoring;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * History of one monitoring parameter of one environment with a fixed size: one ring of buckets per {@link Resolution}.
+ * Every value is added to the bucket of every resolution, a bucket keeps the average of its values, so coarse resolutions
+ * are downsampled on write. When a ring is full, the oldest buckets are overwritten, so retention of a resolution is its step
+ * multiplied by its capacity.
+ * <p>
+ * A bucket takes 5 bytes: float average and count of values, so the footprint of a series depends only on capacities of rings.
+ */
+public class MonitoringSeries {
+
+    private static final byte ENCODING_VERSION = 1;
+    private static final int MAX_COUNT = 255;
+
+    private final Ring[] rings;
+
+    public MonitoringSeries(int[] capacities) {
+        rings = new Ring[Resolution.values().length];
+        for (Resolution resolution : Resolution.values()) {
+            rings[resolution.ordinal()] = new Ring(resolution.step().toSeconds(), capacities[resolution.ordinal()]);
+        }
+    }
+
+    public synchronized void record(Instant timestamp, double value) {
+        for (Ring ring : rings) {
+            ring.add(timestamp.getEpochSecond(), value);
+        }
+    }
+
+    /**
+     * @return averages of non-empty buckets of the resolution that start inside the range, from the oldest to the newest
+     */
+    public synchronized List<Point> range(Resolution resolution, Instant from, Instant to) {
+        return rings[resolution.ordinal()].points(from.getEpochSecond(), to.getEpochSecond());
+    }
+
+    public synchronized byte[] encode() {
+        int size = 2;
+        for (Ring ring : rings) {
+            size += ring.encodedSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(ENCODING_VERSION).put((byte) rings.length);
+        for (Ring ring : rings) {
+            ring.encode(buffer);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Restores a series encoded with {@link #encode()}. If the step of a resolution is changed, its history is dropped,
+     * if the capacity is changed, the newest buckets that fit into the new capacity are kept.
+     */
+    public static MonitoringSeries decode(byte[] data, int[] capacities) {
+        MonitoringSeries series = new MonitoringSeries(capacities);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.get() != ENCODING_VERSION) {
+            return series;
+        }
+        int ringsCount = buffer.get();
+        for (int i = 0; i < ringsCount && i < series.rings.length; i++) {
+            Ring decoded = Ring.decode(buffer);
+            if (decoded.step == series.rings[i].step) {
+                series.rings[i].copyFrom(decoded);
+            }
+        }
+        return series;
+    }
+
+    public enum Resolution {
+        RAW("raw", Duration.ofMinutes(1)),
+        FIVE_MINUTES("5m", Duration.ofMinutes(5)),
+        ONE_HOUR("1h", Duration.ofHours(1));
+
+        private final String label;
+        private final Duration step;
+
+        Resolution(String label, Duration step) {
+            this.label = label;
+            this.step = step;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public Duration step() {
+            return step;
+        }
+
+        public static Resolution fromLabel(String label) {
+            return Arrays.stream(values())
+                    .filter(resolution -> resolution.label.equals(label))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown resolution " + label + ". Supported resolutions: "
+                            + Arrays.stream(values()).map(Resolution::label).toList()));
+        }
+    }
+
+    public record Point(Instant timestamp, double value) {
+    }
+
+    private static class Ring {
+        private final long step;
+        private final float[] values;
+        private final byte[] counts;
+        private long headBucket = -1;
+
+        private Ring(long step, int capacity) {
+            this.step = step;
+            this.values = new float[Math.max(1, capacity)];
+            this.counts = new byte[values.length];
+        }
+
+        private void add(long epochSecond, double value) {
+            long bucket = Math.floorDiv(epochSecond, step);
+            if (bucket > headBucket) {
+                //buckets between the previous head and the new one have no values
+                long emptyBuckets = headBucket < 0 ? values.length : Math.min(bucket - headBucket, values.length);
+                for (long i = 0; i < emptyBuckets; i++) {
+                    counts[slot(bucket - i)] = 0;
+                }
+                headBucket = bucket;
+            } else if (bucket <= headBucket - values.length) {
+                return;
+            }
+            int slot = slot(bucket);
+            int count = Byte.toUnsignedInt(counts[slot]);
+            if (count == 0) {
+                values[slot] = (float) value;
+                counts[slot] = 1;
+            } else if (count < MAX_COUNT) {
+                values[slot] += (float) ((value - values[slot]) / (count + 1));
+                counts[slot] = (byte) (count + 1);
+            }
+        }
+
+        private List<Point> points(long fromEpochSecond, long toEpochSecond) {
+            List<Point> points = new ArrayList<>();
+            if (headBucket < 0) {
+                return points;
+            }
+            long firstBucket = Math.max(Math.floorDiv(fromEpochSecond + step - 1, step), headBucket - values.length + 1);
+            long lastBucket = Math.min(Math.floorDiv(toEpochSecond, step), headBucket);
+            for (long bucket = firstBucket; bucket <= lastBucket; bucket++) {
+                int slot = slot(bucket);
+                if (counts[slot] != 0) {
+                    points.add(new Point(Instant.ofEpochSecond(bucket * step), values[slot]));
+                }
+            }
+            return points;
+        }
+
+        private void copyFrom(Ring other) {
+            if (other.headBucket < 0) {
+                return;
+            }
+            headBucket = other.headBucket;
+            long buckets = Math.min(values.length, other.values.length);
+            for (long bucket = headBucket - buckets + 1; bucket <= headBucket; bucket++) {
+                values[slot(bucket)] = other.values[other.slot(bucket)];
+                counts[slot(bucket)] = other.counts[other.slot(bucket)];
+            }
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) values.length);
+        }
+
+        private int encodedSize() {
+            return Long.BYTES + Integer.BYTES + Long.BYTES + values.length * (Float.BYTES + 1);
+        }
+
+        private void encode(ByteBuffer buffer) {
+            buffer.putLong(step).putInt(values.length).putLong(headBucket);
+            for (float value : values) {
+                buffer.putFloat(value);
+            }
+            buffer.put(counts);
+        }
+
+        private static Ring decode(ByteBuffer buffer) {
+            long step = buffer.getLong();
+            int capacity = buffer.getInt();
+            Ring ring = new Ring(step, capacity);
+            ring.headBucket = buffer.getLong();
+            for (int i = 0; i < capacity; i++) {
+                ring.values[i] = buffer.getFloat();
+            }
+            buffer.get(ring.counts);
+            return ring;
+        }
+    }
+}
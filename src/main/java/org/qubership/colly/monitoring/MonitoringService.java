@@ -2,16 +2,24 @@
 
 import io.quarkus.logging.Log;
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithName;
 import io.smallrye.config.WithParentName;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import org.eclipse.microprofile.rest.client.RestClientBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.qubership.colly.CircuitBreakerRegistry;
 
 import java.net.URI;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.DoubleStream;
 
 import static java.util.Collections.emptyMap;
 
@@ -21,37 +29,249 @@ public class MonitoringService {
     @Inject
     MonitoringParams monitoringParams;
 
-    public Map<String, String> loadMonitoringData(URI monitoringUri, List<String> namespaceNames) {
-        if (monitoringUri == null) {
-            return emptyMap();
+    @Inject
+    CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Inject
+    MonitoringClientRegistry monitoringClientRegistry;
+
+    @ConfigProperty(name = "colly.monitoring-batch.enabled")
+    boolean batchEnabled;
+
+    @ConfigProperty(name = "colly.monitoring-client.time-budget")
+    Duration timeBudget;
+
+    /**
+     * Loads monitoring data of all environments of a cluster: parameters queried once for the whole cluster are merged with parameters
+     * queried per environment. All queries are sent at once without blocking threads, so it takes as long as the slowest query.
+     * <p>
+     * The circuit breaker of the monitoring URI is acquired once for all queries, so a half-open circuit lets the whole refresh through
+     * as its trial. The refresh is recorded as a failure if all its queries fail and as a success otherwise.
+     *
+     * @param namespaceNamesByEnvironment names of namespaces of every environment of the cluster
+     * @return monitoring values by parameter name by environment name. It is empty if the circuit breaker is open or the cluster queries fail,
+     * an environment is omitted if its queries fail, so previously loaded values are kept
+     */
+    public CompletableFuture<Map<String, Map<String, String>>> loadEnvironmentsMonitoringData(URI monitoringUri, Map<String, List<String>> namespaceNamesByEnvironment) {
+        if (monitoringUri == null || namespaceNamesByEnvironment.isEmpty()) {
+            return CompletableFuture.completedFuture(emptyMap());
         }
-        MonitoringClient monitoringClient;
-        HashMap<String, String> result = new HashMap<>();
-        try {
-            monitoringClient = RestClientBuilder.newBuilder().baseUri(monitoringUri).build(MonitoringClient.class);
+        if (!circuitBreakerRegistry.tryAcquire(monitoringUri.toString())) {
+            Log.warn("Circuit breaker of " + monitoringUri + " is open. Monitoring data is not loaded for environments: " + namespaceNamesByEnvironment.keySet());
+            return CompletableFuture.completedFuture(emptyMap());
+        }
+        CompletableFuture<Map<String, Map<String, String>>> clusterFuture = loadClusterMonitoringData(monitoringUri, namespaceNamesByEnvironment);
+        Map<String, CompletableFuture<Map<String, String>>> environmentFutures = new LinkedHashMap<>();
+        namespaceNamesByEnvironment.forEach((environmentName, namespaceNames) ->
+                environmentFutures.put(environmentName, loadMonitoringData(monitoringUri, namespaceNames)));
+        List<CompletableFuture<?>> futures = new ArrayList<>(environmentFutures.values());
+        futures.add(clusterFuture);
+        boolean clusterQueried = hasClusterQueries(namespaceNamesByEnvironment);
+        boolean environmentsQueried = hasEnvironmentQueries();
+        CompletableFuture<Map<String, Map<String, String>>> result = CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<String, Map<String, String>> clusterMonitoringData = clusterFuture.resultNow();
+                    Map<String, Map<String, String>> monitoringData = new HashMap<>();
+                    if (clusterMonitoringData != null) {
+                        environmentFutures.forEach((environmentName, future) -> {
+                            Map<String, String> environmentValues = future.resultNow();
+                            if (environmentValues != null) {
+                                Map<String, String> values = new HashMap<>(clusterMonitoringData.getOrDefault(environmentName, Map.of()));
+                                values.putAll(environmentValues);
+                                monitoringData.put(environmentName, values);
+                            }
+                        });
+                    }
+                    boolean loaded = clusterQueried && clusterMonitoringData != null
+                            || environmentsQueried && environmentFutures.values().stream().anyMatch(future -> future.resultNow() != null);
+                    if (loaded) {
+                        circuitBreakerRegistry.recordSuccess(monitoringUri.toString());
+                    } else if (clusterQueried || environmentsQueried) {
+                        circuitBreakerRegistry.recordFailure(monitoringUri.toString());
+                    }
+                    return monitoringData;
+                });
+        result.whenComplete((ignored, error) -> {
+            if (error instanceof CancellationException) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        });
+        return result;
+    }
 
-            Collection<MonitoringParam> monitoringParams = this.monitoringParams.allMonitoringParams().values();
-            if (monitoringParams.isEmpty()) {
-                return emptyMap();
+    /**
+     * Loads values of parameters that are not queried for the whole cluster, see {@link #loadClusterMonitoringData(URI, Map)}.
+     * Queries of all parameters are executed concurrently. A parameter whose query fails or exceeds the time budget is omitted,
+     * values of other parameters are kept.
+     *
+     * The circuit breaker of the monitoring URI is not checked, see {@link #loadEnvironmentsMonitoringData(URI, Map)}.
+     *
+     * @return monitoring values by parameter name or null if all queries fail, so previously loaded values are kept
+     */
+    CompletableFuture<Map<String, String>> loadMonitoringData(URI monitoringUri, List<String> namespaceNames) {
+        List<MonitoringParam> monitoringParams = this.monitoringParams.allMonitoringParams().values().stream()
+                .filter(monitoringParam -> !isBatched(monitoringParam))
+                .toList();
+        if (monitoringUri == null || monitoringParams.isEmpty()) {
+            return CompletableFuture.completedFuture(emptyMap());
+        }
+        Map<MonitoringParam, CompletableFuture<MonitoringResponse>> responses = new LinkedHashMap<>();
+        for (MonitoringParam monitoringParam : monitoringParams) {
+            String monitoringQuery = monitoringParam.query().replace("{namespace}", String.join("|", namespaceNames));
+            Log.debug("Executing query: " + monitoringQuery + " on " + monitoringUri + " for namespaces: " + namespaceNames);
+            responses.put(monitoringParam, executeQuery(monitoringUri, monitoringClient -> monitoringClient.executeQueryAsync(monitoringQuery)));
+        }
+        return completed(monitoringUri, responses, (monitoringParam, monitoringResponse, result) -> {
+            if (monitoringResponse == null || monitoringResponse.data == null || monitoringResponse.data.result == null || monitoringResponse.data.result.isEmpty()) {
+                return;
             }
+            String monitoringData = monitoringResponse.data.result.getFirst().value.getLast();
+            Log.debug("Monitoring data for " + monitoringParam.name() + " is " + monitoringData + " for namespaces: " + namespaceNames);
+            result.put(monitoringParam.name(), monitoringData);
+        }, new HashMap<>());
+    }
 
-            for (MonitoringParam monitoringParam : monitoringParams) {
-                String monitoringQuery = monitoringParam.query().replace("{namespace}", String.join("|", namespaceNames));
-                Log.info("Executing query: " + monitoringQuery + " on " + monitoringUri + " for namespaces: " + namespaceNames);
-                MonitoringResponse monitoringResponse = monitoringClient.executeQuery(monitoringQuery);
-                if (monitoringResponse == null || monitoringResponse.data == null || monitoringResponse.data.result == null || monitoringResponse.data.result.isEmpty()) {
-                    continue;
+    /**
+     * Executes one query per batched parameter for the whole cluster. The query returns a value per namespace,
+     * values of namespaces of an environment are aggregated in memory, so the number of queries does not depend on the number of environments.
+     * Queries of all parameters are executed concurrently, a parameter whose query fails or exceeds the time budget is omitted.
+     *
+     * @param namespaceNamesByEnvironment names of namespaces of every environment of the cluster
+     * The circuit breaker of the monitoring URI is not checked, see {@link #loadEnvironmentsMonitoringData(URI, Map)}.
+     *
+     * @return monitoring values by parameter name by environment name or null if all queries fail, so previously loaded values are kept
+     */
+    CompletableFuture<Map<String, Map<String, String>>> loadClusterMonitoringData(URI monitoringUri, Map<String, List<String>> namespaceNamesByEnvironment) {
+        List<MonitoringParam> monitoringParams = this.monitoringParams.allMonitoringParams().values().stream()
+                .filter(this::isBatched)
+                .toList();
+        Set<String> namespaceNames = new TreeSet<>();
+        namespaceNamesByEnvironment.values().forEach(namespaceNames::addAll);
+        if (monitoringUri == null || monitoringParams.isEmpty() || namespaceNames.isEmpty()) {
+            return CompletableFuture.completedFuture(emptyMap());
+        }
+        Map<MonitoringParam, CompletableFuture<MonitoringResponse>> responses = new LinkedHashMap<>();
+        for (MonitoringParam monitoringParam : monitoringParams) {
+            String monitoringQuery = monitoringParam.batchQuery().orElseThrow().replace("{namespace}", String.join("|", namespaceNames));
+            Log.debug("Executing query: " + monitoringQuery + " on " + monitoringUri);
+            //the regex with all namespaces of a cluster can be too long for a url, so the query is sent in the body
+            responses.put(monitoringParam, executeQuery(monitoringUri, monitoringClient -> monitoringClient.executeQueryInBodyAsync(monitoringQuery)));
+        }
+        Map<String, Map<String, String>> initialResult = new HashMap<>();
+        namespaceNamesByEnvironment.keySet().forEach(environmentName -> initialResult.put(environmentName, new HashMap<>()));
+        return completed(monitoringUri, responses, (monitoringParam, monitoringResponse, result) -> {
+            Map<String, Double> valuesByNamespace = valuesByNamespace(monitoringResponse);
+            Log.info("Monitoring data for " + monitoringParam.name() + " is loaded from " + monitoringUri + " for " + valuesByNamespace.size() + " namespaces");
+            namespaceNamesByEnvironment.forEach((environmentName, environmentNamespaces) -> {
+                double[] values = environmentNamespaces.stream()
+                        .map(valuesByNamespace::get)
+                        .filter(Objects::nonNull)
+                        .mapToDouble(Double::doubleValue)
+                        .toArray();
+                if (values.length > 0) {
+                    result.get(environmentName).put(monitoringParam.name(), format(monitoringParam.batchAggregation().aggregate(values)));
                 }
+            });
+        }, initialResult);
+    }
 
-                String monitoringData = monitoringResponse.data.result.getFirst().value.getLast();
-                Log.info("Monitoring data for " + monitoringParam.name() + " is " + monitoringData);
-                result.put(monitoringParam.name(), monitoringData);
+    private CompletableFuture<MonitoringResponse> executeQuery(URI monitoringUri, Function<MonitoringClient, CompletionStage<MonitoringResponse>> query) {
+        MonitoringClient monitoringClient;
+        try {
+            monitoringClient = monitoringClientRegistry.getClient(monitoringUri);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return monitoringClientRegistry.getQueryLimiter(monitoringUri)
+                .submit(() -> query.apply(monitoringClient))
+                .orTimeout(timeBudget.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits for all responses and collects values of successful ones into the result. If all queries fail, the result is null.
+     */
+    private <R> CompletableFuture<R> completed(URI monitoringUri, Map<MonitoringParam, CompletableFuture<MonitoringResponse>> responses,
+                                               ResponseCollector<R> collector, R result) {
+        return CompletableFuture.allOf(responses.values().toArray(CompletableFuture[]::new))
+                .handle((ignored, error) -> {
+                    int failedQueries = 0;
+                    for (Map.Entry<MonitoringParam, CompletableFuture<MonitoringResponse>> entry : responses.entrySet()) {
+                        MonitoringParam monitoringParam = entry.getKey();
+                        CompletableFuture<MonitoringResponse> response = entry.getValue();
+                        try {
+                            collector.collect(monitoringParam, response.resultNow(), result);
+                        } catch (RuntimeException e) {
+                            failedQueries++;
+                            Throwable cause = response.isCompletedExceptionally() ? response.exceptionNow() : e;
+                            if (cause instanceof TimeoutException) {
+                                Log.error("Query of " + monitoringParam.name() + " on " + monitoringUri + " exceeded time budget of " + timeBudget);
+                            } else {
+                                Log.error("Unable to load " + monitoringParam.name() + " from " + monitoringUri + ". " + cause.getMessage());
+                            }
+                        }
+                    }
+                    return failedQueries == responses.size() ? null : result;
+                });
+    }
+
+    @FunctionalInterface
+    private interface ResponseCollector<R> {
+        void collect(MonitoringParam monitoringParam, MonitoringResponse monitoringResponse, R result);
+    }
+
+    private boolean hasClusterQueries(Map<String, List<String>> namespaceNamesByEnvironment) {
+        return namespaceNamesByEnvironment.values().stream().anyMatch(namespaceNames -> !namespaceNames.isEmpty())
+                && monitoringParams.allMonitoringParams().values().stream().anyMatch(this::isBatched);
+    }
+
+    private boolean hasEnvironmentQueries() {
+        return monitoringParams.allMonitoringParams().values().stream().anyMatch(monitoringParam -> !isBatched(monitoringParam));
+    }
+
+    private boolean isBatched(MonitoringParam monitoringParam) {
+        return batchEnabled && monitoringParam.batchQuery().isPresent();
+    }
+
+    private static Map<String, Double> valuesByNamespace(MonitoringResponse monitoringResponse) {
+        Map<String, Double> valuesByNamespace = new HashMap<>();
+        if (monitoringResponse == null || monitoringResponse.data == null || monitoringResponse.data.result == null) {
+            return valuesByNamespace;
+        }
+        for (MonitoringResponse.Result result : monitoringResponse.data.result) {
+            String namespaceName = result.metric == null ? null : result.metric.get("namespace");
+            if (namespaceName == null || result.value == null || result.value.isEmpty()) {
+                continue;
             }
-        } catch (Exception e) {
-            Log.error("Unable to load monitoring data from " + monitoringUri);
-            return emptyMap();
+            Double value = parseValue(result.value.getLast());
+            if (value == null) {
+                Log.debug("Monitoring value " + result.value.getLast() + " of namespace " + namespaceName + " is skipped");
+                continue;
+            }
+            valuesByNamespace.merge(namespaceName, value, Double::sum);
         }
-        return result;
+        return valuesByNamespace;
+    }
+
+    /**
+     * Prometheus returns +Inf, -Inf and NaN as values, such a value of one namespace is skipped,
+     * so it does not fail the parameter for all environments of the cluster.
+     *
+     * @return finite value or null
+     */
+    private static Double parseValue(String value) {
+        try {
+            double parsed = Double.parseDouble(value);
+            return Double.isFinite(parsed) ? parsed : null;
+        } catch (NumberFormatException | NullPointerException e) {
+            return null;
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
     }
 
     public List<String> getParameters() {
@@ -74,5 +294,30 @@ public interface MonitoringParam {
         String name();
 
         String query();
+
+        /**
+         * Query for all namespaces of a cluster that returns a value per namespace, e.g. {@code count by (namespace) (...)}.
+         */
+        @WithName("batch-query")
+        Optional<String> batchQuery();
+
+        /**
+         * How values of namespaces of an environment are combined into the value of the environment.
+         */
+        @WithName("batch-aggregation")
+        @WithDefault("sum")
+        BatchAggregation batchAggregation();
+    }
+
+    public enum BatchAggregation {
+        SUM, MAX, MIN;
+
+        double aggregate(double[] values) {
+            return switch (this) {
+                case SUM -> DoubleStream.of(values).sum();
+                case MAX -> DoubleStream.of(values).max().orElseThrow();
+                case MIN -> DoubleStream.of(values).min().orElseThrow();
+            };
+        }
     }
 }
@@ -0,0 +1,83 @@
+package org.qubership.colly.monitoring;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of queries executed at the same time against one monitoring host without blocking callers:
+ * a query over the limit is queued and started when one of the running queries is completed.
+ * A query whose result is completed while it is queued, e.g. by a timeout, is not started at all.
+ */
+class QueryLimiter {
+
+    private final int maxConcurrentQueries;
+    private final Queue<PendingQuery<?>> pendingQueries = new ArrayDeque<>();
+    private int runningQueries;
+
+    QueryLimiter(int maxConcurrentQueries) {
+        this.maxConcurrentQueries = Math.max(1, maxConcurrentQueries);
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<CompletionStage<T>> query) {
+        PendingQuery<T> pendingQuery = new PendingQuery<>(query, new CompletableFuture<>());
+        boolean startNow;
+        synchronized (this) {
+            startNow = runningQueries < maxConcurrentQueries;
+            if (startNow) {
+                runningQueries++;
+            } else {
+                pendingQueries.add(pendingQuery);
+            }
+        }
+        if (startNow) {
+            start(pendingQuery);
+        }
+        return pendingQuery.result();
+    }
+
+    synchronized int queuedQueries() {
+        return pendingQueries.size();
+    }
+
+    private <T> void start(PendingQuery<T> pendingQuery) {
+        CompletableFuture<T> execution;
+        try {
+            execution = pendingQuery.query().get().toCompletableFuture();
+        } catch (RuntimeException e) {
+            pendingQuery.result().completeExceptionally(e);
+            release();
+            return;
+        }
+        //a query that is timed out or cancelled by the caller is cancelled too, so its permit is released at once
+        pendingQuery.result().whenComplete((value, error) -> execution.cancel(true));
+        execution.whenComplete((value, error) -> {
+            if (error != null) {
+                pendingQuery.result().completeExceptionally(error);
+            } else {
+                pendingQuery.result().complete(value);
+            }
+            release();
+        });
+    }
+
+    private void release() {
+        PendingQuery<?> next;
+        synchronized (this) {
+            do {
+                next = pendingQueries.poll();
+            } while (next != null && next.result().isDone());
+            if (next == null) {
+                runningQueries--;
+            }
+        }
+        if (next != null) {
+            start(next);
+        }
+    }
+
+    private record PendingQuery<T>(Supplier<CompletionStage<T>> query, CompletableFuture<T> result) {
+    }
+}
@@ -5,11 +5,18 @@
 import io.quarkus.test.security.TestSecurity;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.Test;
+import org.qubership.colly.MonitoringHistoryStore;
 import org.qubership.colly.db.EnvironmentRepository;
 import org.qubership.colly.db.data.Environment;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @QuarkusTest
 @TestTransaction
@@ -17,6 +24,9 @@ class ClusterResourcesRestTest {
     @Inject
     EnvironmentRepository environmentRepository;
 
+    @Inject
+    MonitoringHistoryStore monitoringHistoryStore;
+
     @Test
     void load_environments_without_auth() {
         given()
@@ -28,25 +38,21 @@ void load_environments_without_auth() {
     @Test
     @TestSecurity(user = "test")
     void load_environments() {
-        given()
-                .when().post("/colly/tick")
-                .then()
-                .statusCode(204);
+        triggerSyncAndWait();
         given()
                 .when().get("/colly/environments")
                 .then()
                 .statusCode(200)
-                .body("name", contains("env-test", "env-1"));
+                .body("name", contains("env-test", "env-1"))
+                .body("find { it.name == 'env-test' }.cluster.name", equalTo("test-cluster"))
+                .body("find { it.name == 'env-test' }.namespaces.name", contains("demo-k8s"));
     }
 
 
     @Test
     @TestSecurity(user = "admin", roles = "admin")
     void save_environment_with_auth() {
-        given()
-                .when().post("/colly/tick")
-                .then()
-                .statusCode(204);
+        triggerSyncAndWait();
         Environment env = environmentRepository.findByNameAndCluster("env-test", "test-cluster");
         given()
                 .formParam("owner", "test-owner")
@@ -61,6 +67,166 @@ void save_environment_with_auth() {
                 .statusCode(204);
     }
 
+    @Test
+    @TestSecurity(user = "admin", roles = "admin")
+    void load_environments_after_save() {
+        triggerSyncAndWait();
+        given()
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(200);
+        Environment env = environmentRepository.findByNameAndCluster("env-test", "test-cluster");
+        given()
+                .formParam("owner", "new-owner")
+                .formParam("description", "new-description")
+                .formParam("status", "active")
+                .formParam("labels", "label1")
+                .formParam("type", "development")
+                .formParam("team", "new-team")
+                .when().post("/colly/environments/" + env.id.toString())
+                .then()
+                .statusCode(204);
+        given()
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(200)
+                .body("find { it.name == 'env-test' }.owner", equalTo("new-owner"))
+                .body("find { it.name == 'env-test' }.labels", contains("label1"));
+    }
+
+    @Test
+    @TestSecurity(user = "test")
+    void load_environments_sorted_and_paged() {
+        triggerSyncAndWait();
+        given()
+                .queryParam("sort", "name")
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", "2")
+                .body("name", contains("env-1", "env-test"));
+        given()
+                .queryParam("limit", 1)
+                .queryParam("page", 1)
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", "2")
+                .body("name", contains("env-1"));
+        given()
+                .queryParam("sort", "-cluster")
+                .queryParam("limit", 1)
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", "2")
+                .body("name", contains("env-1"));
+    }
+
+    @Test
+    @TestSecurity(user = "admin", roles = "admin")
+    void load_environments_filtered() {
+        triggerSyncAndWait();
+        Environment env = environmentRepository.findByNameAndCluster("env-test", "test-cluster");
+        given()
+                .formParam("owner", "filter-owner")
+                .formParam("status", "in_use")
+                .formParam("labels", "filter-label")
+                .formParam("type", "development")
+                .formParam("expirationDate", "2030-06-15")
+                .when().post("/colly/environments/" + env.id.toString())
+                .then()
+                .statusCode(204);
+
+        given()
+                .queryParam("cluster", "test-cluster")
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", "1")
+                .body("name", contains("env-test"));
+        given()
+                .queryParam("owner", "filter-owner")
+                .queryParam("label", "filter-label")
+                .queryParam("status", "IN_USE")
+                .queryParam("expirationFrom", "2030-06-01")
+                .queryParam("expirationTo", "2030-06-30")
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", "1")
+                .body("name", contains("env-test"));
+        given()
+                .queryParam("label", "filter-label")
+                .queryParam("expirationTo", "2030-06-14")
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(200)
+                .header("X-Total-Count", "0")
+                .body("$", empty());
+    }
+
+    @Test
+    @TestSecurity(user = "admin", roles = "admin")
+    void return_not_modified_until_inventory_is_changed() {
+        triggerSyncAndWait();
+        String environmentsEtag = given()
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .extract().header("ETag");
+        String clustersEtag = given()
+                .when().get("/colly/clusters")
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+        assertThat(clustersEtag, equalTo(environmentsEtag));
+
+        // a synchronization run that changes nothing keeps the version
+        triggerSyncAndWait();
+        given()
+                .header("If-None-Match", environmentsEtag)
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(304)
+                .header("ETag", equalTo(environmentsEtag));
+
+        given()
+                .formParam("description", "changed-description")
+                .when().post("/colly/clusters/test-cluster")
+                .then()
+                .statusCode(204);
+
+        given()
+                .header("If-None-Match", clustersEtag)
+                .when().get("/colly/clusters")
+                .then()
+                .statusCode(200)
+                .header("ETag", not(equalTo(clustersEtag)))
+                .body("find { it.name == 'test-cluster' }.description", equalTo("changed-description"));
+    }
+
+    @Test
+    @TestSecurity(user = "test")
+    void try_to_load_environments_with_invalid_parameters() {
+        given()
+                .queryParam("sort", "unknown")
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(400);
+        given()
+                .queryParam("status", "unknown")
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(400);
+        given()
+                .queryParam("limit", 0)
+                .when().get("/colly/environments")
+                .then()
+                .statusCode(400);
+    }
+
     @Test
     @TestSecurity(user = "test")
     void save_environment_without_admin_role() {
@@ -80,10 +246,7 @@ void save_environment_without_admin_role() {
     @Test
     @TestSecurity(user = "admin", roles = "admin")
     void save_cluster_with_auth() {
-        given()
-                .when().post("/colly/tick")
-                .then()
-                .statusCode(204);
+        triggerSyncAndWait();
 
         given()
                 .formParam("description", "test-cluster-description")
@@ -107,6 +270,38 @@ void save_cluster_without_admin_role() {
                 .statusCode(403);
     }
 
+    @Test
+    @TestSecurity(user = "test")
+    void tick_starts_synchronization_in_background_and_reports_status() {
+        triggerSyncAndWait();
+
+        given()
+                .when().get("/colly/sync/status")
+                .then()
+                .statusCode(200)
+                .body("running", equalTo(false))
+                .body("currentRun", nullValue())
+                .body("lastRun.trigger", equalTo("manual"))
+                .body("lastRun.clustersTotal", equalTo(2))
+                .body("lastRun.clustersCompleted", equalTo(2))
+                .body("lastRun.clusters.name", containsInAnyOrder("test-cluster", "unreachable-cluster"))
+                // clusters of test Cloud Passports are not reachable from tests
+                .body("lastRun.clusters.state", everyItem(equalTo("FAILED")))
+                .body("lastRun.clusters.result", everyItem(equalTo("FAILED")))
+                .body("schedule.name", contains("test-cluster", "unreachable-cluster"))
+                .body("schedule.consecutiveFailures", everyItem(greaterThanOrEqualTo(1)))
+                .body("schedule.nextSyncAt", everyItem(notNullValue()))
+                .body("schedule.apiCircuitBreaker", everyItem(oneOf("CLOSED", "OPEN", "HALF_OPEN")));
+    }
+
+    @Test
+    void load_sync_status_without_auth() {
+        given()
+                .when().get("/colly/sync/status")
+                .then()
+                .statusCode(401);
+    }
+
     @Test
     void load_metadata_without_auth() {
         given()
@@ -136,10 +331,7 @@ void load_clusters_without_auth() {
     @Test
     @TestSecurity(user = "test")
     void load_clusters() {
-        given()
-                .when().post("/colly/tick")
-                .then()
-                .statusCode(204);
+        triggerSyncAndWait();
         given()
                 .when().get("/colly/clusters")
                 .then()
@@ -214,10 +406,7 @@ void unable_to_delete_environment_without_admin_role() {
     @Test
     @TestSecurity(user = "admin", roles = "admin")
     void delete_environment_with_auth() {
-        given()
-                .when().post("/colly/tick")
-                .then()
-                .statusCode(204);
+        triggerSyncAndWait();
         given()
                 .when().get("/colly/environments")
                 .then()
@@ -245,4 +434,56 @@ void delete_environment_with_non_existing_id() {
                 .statusCode(400);
     }
 
+
+    @Test
+    @TestSecurity(user = "test")
+    void load_monitoring_history() {
+        triggerSyncAndWait();
+        Environment env = environmentRepository.findByNameAndCluster("env-test", "test-cluster");
+        Instant minute = Instant.now().truncatedTo(ChronoUnit.MINUTES);
+        monitoringHistoryStore.record("test-cluster", "env-test", Map.of("Running Pods", "3"), minute.minus(2, ChronoUnit.MINUTES));
+        monitoringHistoryStore.record("test-cluster", "env-test", Map.of("Running Pods", "5"), minute.minus(1, ChronoUnit.MINUTES));
+
+        given()
+                .queryParam("parameter", "Running Pods")
+                .queryParam("from", minute.minus(10, ChronoUnit.MINUTES).toString())
+                .queryParam("resolution", "raw")
+                .when().get("/colly/environments/" + env.id + "/monitoring-history")
+                .then()
+                .statusCode(200)
+                .body("parameter", equalTo("Running Pods"))
+                .body("resolution", equalTo("raw"))
+                .body("points.value", contains(3.0f, 5.0f))
+                .body("points.timestamp", contains(minute.minus(2, ChronoUnit.MINUTES).toString(), minute.minus(1, ChronoUnit.MINUTES).toString()));
+    }
+
+    @Test
+    @TestSecurity(user = "test")
+    void try_to_load_monitoring_history_with_unknown_resolution() {
+        triggerSyncAndWait();
+        Environment env = environmentRepository.findByNameAndCluster("env-test", "test-cluster");
+        given()
+                .queryParam("parameter", "Running Pods")
+                .queryParam("resolution", "1d")
+                .when().get("/colly/environments/" + env.id + "/monitoring-history")
+                .then()
+                .statusCode(400);
+    }
+
+    private void triggerSyncAndWait() {
+        given()
+                .when().post("/colly/tick")
+                .then()
+                .statusCode(202);
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (given().when().get("/colly/sync/status").then().statusCode(200).extract().<Boolean>path("running")) {
+            assertTrue(System.currentTimeMillis() < deadline, "Synchronization is not completed in 30 seconds");
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package org.qubership.colly;
+
+import io.quarkus.test.component.QuarkusComponentTest;
+import io.quarkus.test.component.TestConfigProperty;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+@QuarkusComponentTest
+@TestConfigProperty(key = "colly.circuit-breaker.failure-threshold", value = "3")
+@TestConfigProperty(key = "colly.circuit-breaker.open-duration", value = "200ms")
+class CircuitBreakerRegistryTest {
+
+    private static final String API_HOST = "https://unreachable-cluster:6443";
+
+    @Inject
+    CircuitBreakerRegistry registry;
+
+    @Test
+    void open_circuit_after_failures_in_a_row() {
+        registry.recordFailure(API_HOST);
+        registry.recordFailure(API_HOST);
+        registry.recordSuccess(API_HOST);
+        registry.recordFailure(API_HOST);
+        registry.recordFailure(API_HOST);
+        assertThat(registry.getState(API_HOST), equalTo(CircuitBreakerRegistry.State.CLOSED));
+        assertThat(registry.tryAcquire(API_HOST), is(true));
+
+        registry.recordFailure(API_HOST);
+
+        assertThat(registry.getState(API_HOST), equalTo(CircuitBreakerRegistry.State.OPEN));
+        assertThat(registry.tryAcquire(API_HOST), is(false));
+        assertThat(registry.tryAcquire("https://other-cluster:6443"), is(true));
+    }
+
+    @Test
+    void allow_one_trial_request_after_open_duration() throws InterruptedException {
+        openCircuit();
+        Thread.sleep(250);
+
+        assertThat(registry.tryAcquire(API_HOST), is(true));
+        assertThat(registry.getState(API_HOST), equalTo(CircuitBreakerRegistry.State.HALF_OPEN));
+        assertThat(registry.tryAcquire(API_HOST), is(false));
+
+        registry.recordSuccess(API_HOST);
+        assertThat(registry.getState(API_HOST), equalTo(CircuitBreakerRegistry.State.CLOSED));
+        assertThat(registry.tryAcquire(API_HOST), is(true));
+    }
+
+    @Test
+    void open_circuit_again_when_trial_request_fails() throws InterruptedException {
+        openCircuit();
+        Thread.sleep(250);
+        assertThat(registry.tryAcquire(API_HOST), is(true));
+
+        registry.recordFailure(API_HOST);
+
+        assertThat(registry.getState(API_HOST), equalTo(CircuitBreakerRegistry.State.OPEN));
+        assertThat(registry.tryAcquire(API_HOST), is(false));
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 3; i++) {
+            registry.recordFailure(API_HOST);
+        }
+        assertThat(registry.getState(API_HOST), equalTo(CircuitBreakerRegistry.State.OPEN));
+    }
+}
@@ -4,6 +4,7 @@
 import io.quarkus.test.component.QuarkusComponentTest;
 import io.quarkus.test.component.TestConfigProperty;
 import jakarta.inject.Inject;
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -13,11 +14,14 @@
 import org.qubership.colly.cloudpassport.envgen.CloudData;
 import org.qubership.colly.cloudpassport.envgen.CloudPassportData;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -25,6 +29,7 @@
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
 
 @QuarkusComponentTest
 class CloudPassportLoaderTest {
@@ -54,7 +59,7 @@ class CloudPassportLoaderTest {
 
     @BeforeEach
     void setUp() {
-        doAnswer(invocationOnMock -> null).when(gitService).cloneRepository(any(), any());
+        doAnswer(invocationOnMock -> null).when(gitService).cloneOrUpdateRepository(any(), any());
     }
 
 
@@ -66,6 +71,70 @@ void load_cloud_passports_from_test_folder() {
 
     }
 
+    @Test
+    @TestConfigProperty(key = "cloud.passport.folder", value = "src/test/resources/gitrepo_with_cloudpassports")
+    void parse_only_changed_files_on_subsequent_load() {
+        loader.loadCloudPassports();
+        CloudPassportFileCache.Stats afterFirstLoad = loader.getFileCacheStats();
+
+        List<CloudPassport> result = loader.loadCloudPassports();
+        CloudPassportFileCache.Stats afterSecondLoad = loader.getFileCacheStats();
+
+        assertThat(result, containsInAnyOrder(TEST_CLUSTER_CLOUD_PASSPORT, TEST_CLUSTER_CLOUD_PASSPORT_FOR_UNREACHABLE_CLUSTER));
+        assertThat(afterSecondLoad.misses(), equalTo(afterFirstLoad.misses()));
+        assertThat(afterSecondLoad.hits() - afterFirstLoad.hits(), equalTo((long) afterFirstLoad.size()));
+        assertThat(afterSecondLoad.size(), equalTo(afterFirstLoad.size()));
+    }
+
+    @Test
+    @TestConfigProperty(key = "cloud.passport.folder", value = "target/cloud-passport-loader-test")
+    @TestConfigProperty(key = "env.instances.repo", value = "https://git.example.com/instances.git")
+    void skip_parsing_when_repository_head_is_not_changed() throws IOException {
+        Path repositoryFolder = Path.of("target/cloud-passport-loader-test/1");
+        FileUtils.deleteDirectory(repositoryFolder.getParent().toFile());
+        FileUtils.copyDirectory(new File("src/test/resources/gitrepo_with_cloudpassports"), repositoryFolder.toFile());
+        when(gitService.cloneOrUpdateRepository(any(), any())).thenReturn("commit-1");
+
+        List<CloudPassport> firstResult = loader.loadCloudPassports();
+        List<CloudPassport> secondResult = loader.loadCloudPassports();
+        assertThat(firstResult, containsInAnyOrder(TEST_CLUSTER_CLOUD_PASSPORT, TEST_CLUSTER_CLOUD_PASSPORT_FOR_UNREACHABLE_CLUSTER));
+        assertThat(secondResult, sameInstance(firstResult));
+        assertThat(loader.getRepositoryRevisions(), equalTo(Map.of("https://git.example.com/instances.git", "commit-1")));
+
+        when(gitService.cloneOrUpdateRepository(any(), any())).thenReturn("commit-2");
+        List<CloudPassport> thirdResult = loader.loadCloudPassports();
+        assertThat(thirdResult, not(sameInstance(firstResult)));
+        assertThat(thirdResult, containsInAnyOrder(TEST_CLUSTER_CLOUD_PASSPORT, TEST_CLUSTER_CLOUD_PASSPORT_FOR_UNREACHABLE_CLUSTER));
+    }
+
+    @Test
+    @TestConfigProperty(key = "cloud.passport.folder", value = "target/cloud-passport-parallel-test")
+    @TestConfigProperty(key = "colly.cloud-passport-loader.parallelism", value = "4")
+    void parse_cluster_folders_in_parallel_keeping_order_and_skipping_broken_folder() throws IOException {
+        Path root = Path.of("target/cloud-passport-parallel-test");
+        FileUtils.deleteDirectory(root.toFile());
+        Path sourceCluster = Path.of("src/test/resources/gitrepo_with_cloudpassports/unreachable-cluster");
+        List<CloudPassport> expected = new ArrayList<>();
+        for (int index = 1; index <= 8; index++) {
+            String clusterName = "cluster-" + index;
+            Path clusterFolder = root.resolve(clusterName);
+            FileUtils.copyDirectory(sourceCluster.toFile(), clusterFolder.toFile());
+            Path cloudPassportFolder = clusterFolder.resolve("cloud-passport");
+            Files.move(cloudPassportFolder.resolve("unreachable-cluster.yml"), cloudPassportFolder.resolve(clusterName + ".yml"));
+            Files.move(cloudPassportFolder.resolve("unreachable-cluster-creds.yml"), cloudPassportFolder.resolve(clusterName + "-creds.yml"));
+            if (index == 5) {
+                Files.writeString(cloudPassportFolder.resolve(clusterName + ".yml"), "cloud: [not, a, map");
+                continue;
+            }
+            CloudPassport source = TEST_CLUSTER_CLOUD_PASSPORT_FOR_UNREACHABLE_CLUSTER;
+            expected.add(new CloudPassport(clusterName, source.token(), source.cloudApiHost(), source.environments(), source.monitoringUrl()));
+        }
+
+        List<CloudPassport> result = loader.loadCloudPassports();
+
+        assertThat(result, equalTo(expected));
+    }
+
     @Test
     @TestConfigProperty(key = "cloud.passport.folder", value = "/nonexistent/path")
     void load_cloud_passports_from_test_folder_with_empty_folder() {
@@ -0,0 +1,140 @@
+package org.qubership.colly;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.qubership.colly.CloudPassportLoader.*;
+
+class CloudPassportRepositoryIndexTest {
+
+    private static final int CLUSTERS_COUNT = 5;
+    private static final int ENVIRONMENTS_PER_CLUSTER = 2;
+    private static final int NAMESPACES_PER_ENVIRONMENT = 3;
+
+    private int nestedScanVisitedDirectories;
+
+    @Test
+    void index_test_repository() throws IOException {
+        Path root = Path.of("src/test/resources/gitrepo_with_cloudpassports");
+
+        CloudPassportRepositoryIndex index = CloudPassportRepositoryIndex.build(root);
+
+        assertThat(index.clusters().stream().map(CloudPassportRepositoryIndex.ClusterFolder::name).toList(),
+                contains("test-cluster", "unreachable-cluster"));
+        CloudPassportRepositoryIndex.ClusterFolder testCluster = index.clusters().getFirst();
+        assertThat(testCluster.cloudPassportFile("test-cluster.yml").isPresent(), is(true));
+        assertThat(testCluster.cloudPassportFile("test-cluster-creds.yml").isPresent(), is(true));
+        assertThat(testCluster.environments().getFirst().namespaceFiles(),
+                contains(root.resolve("test-cluster/env-test/Namespaces/bss/namespace.yml")));
+        assertThat(index.clusters().get(1).environments().getFirst().namespaceFiles(),
+                contains(root.resolve("unreachable-cluster/env-1/Namespaces/bss/namespace.yml"),
+                        root.resolve("unreachable-cluster/env-1/Namespaces/core/namespace.yml")));
+    }
+
+    @Test
+    void single_pass_index_matches_nested_scan_and_visits_every_directory_once(@TempDir Path root) throws IOException {
+        generateRepository(root);
+
+        Map<Path, Map<Path, List<Path>>> expected = nestedScan(root);
+        CloudPassportRepositoryIndex index = CloudPassportRepositoryIndex.build(root);
+        Map<Path, Map<Path, List<Path>>> actual = toMap(index);
+        assertThat(actual, equalTo(expected));
+        assertThat(actual.size(), equalTo(CLUSTERS_COUNT));
+        assertThat(actual.values().stream().flatMap(envs -> envs.values().stream()).mapToInt(List::size).sum(),
+                equalTo(CLUSTERS_COUNT * ENVIRONMENTS_PER_CLUSTER * NAMESPACES_PER_ENVIRONMENT));
+
+        int directoriesCount = countDirectories(root);
+        assertThat(index.visitedDirectories(), equalTo(directoriesCount));
+        //the nested scan walks the tree, then every cluster and then every environment again
+        assertThat(nestedScanVisitedDirectories, greaterThan(2 * directoriesCount));
+    }
+
+    private void generateRepository(Path root) throws IOException {
+        for (int clusterIndex = 0; clusterIndex < CLUSTERS_COUNT; clusterIndex++) {
+            String clusterName = "cluster-" + clusterIndex;
+            Path clusterFolder = root.resolve(clusterName);
+            Path cloudPassportFolder = Files.createDirectories(clusterFolder.resolve(CLOUD_PASSPORT_FOLDER));
+            Files.writeString(cloudPassportFolder.resolve(clusterName + ".yml"), "cloud: {}");
+            Files.writeString(cloudPassportFolder.resolve(clusterName + "-creds.yml"), "token: {}");
+            for (int envIndex = 0; envIndex < ENVIRONMENTS_PER_CLUSTER; envIndex++) {
+                Path environmentFolder = clusterFolder.resolve("env-" + envIndex);
+                Path inventoryFolder = Files.createDirectories(environmentFolder.resolve("Inventory"));
+                Files.writeString(inventoryFolder.resolve(ENV_DEFINITION_YML_FILENAME), "inventory: {}");
+                for (int namespaceIndex = 0; namespaceIndex < NAMESPACES_PER_ENVIRONMENT; namespaceIndex++) {
+                    Path namespaceFolder = Files.createDirectories(environmentFolder.resolve("Namespaces/ns-" + namespaceIndex));
+                    Files.writeString(namespaceFolder.resolve(NAMESPACE_YML_FILENAME), "name: ns-" + namespaceIndex);
+                }
+            }
+        }
+    }
+
+    private Map<Path, Map<Path, List<Path>>> toMap(CloudPassportRepositoryIndex index) {
+        Map<Path, Map<Path, List<Path>>> result = new HashMap<>();
+        for (CloudPassportRepositoryIndex.ClusterFolder cluster : index.clusters()) {
+            Map<Path, List<Path>> environments = new HashMap<>();
+            cluster.environments().forEach(env -> environments.put(env.envDefinitionFile(), env.namespaceFiles()));
+            result.put(cluster.path(), environments);
+        }
+        return result;
+    }
+
+    // the traversal that CloudPassportLoader used before the index: the tree, every cluster and every environment are walked separately
+    private Map<Path, Map<Path, List<Path>>> nestedScan(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            Map<Path, Map<Path, List<Path>>> result = new HashMap<>();
+            paths.filter(this::countDirectory)
+                    .map(path -> path.resolve(CLOUD_PASSPORT_FOLDER))
+                    .filter(Files::isDirectory)
+                    .forEach(path -> result.put(path.getParent(), scanEnvironments(path.getParent())));
+            return result;
+        }
+    }
+
+    private Map<Path, List<Path>> scanEnvironments(Path clusterFolder) {
+        try (Stream<Path> paths = Files.walk(clusterFolder)) {
+            Map<Path, List<Path>> result = new HashMap<>();
+            paths.filter(this::countDirectory)
+                    .map(path -> path.resolve(ENV_DEFINITION_YML_FILENAME))
+                    .filter(Files::isRegularFile)
+                    .forEach(envDefinition -> result.put(envDefinition, scanNamespaces(envDefinition.getParent().getParent())));
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> scanNamespaces(Path environmentFolder) {
+        try (Stream<Path> paths = Files.walk(environmentFolder)) {
+            return paths.filter(this::countDirectory)
+                    .map(path -> path.resolve(NAMESPACE_YML_FILENAME))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean countDirectory(Path path) {
+        if (Files.isDirectory(path)) {
+            nestedScanVisitedDirectories++;
+            return true;
+        }
+        return false;
+    }
+
+    private static int countDirectories(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return (int) paths.filter(Files::isDirectory).count();
+        }
+    }
+}
@@ -9,7 +9,10 @@
 import io.quarkus.test.TestTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,15 +28,13 @@
 import java.net.URI;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.qubership.colly.ClusterResourcesLoader.*;
 
 @QuarkusTest
@@ -58,6 +59,10 @@ class ClusterResourcesLoaderTest {
     EnvironmentRepository environmentRepository;
     @Inject
     NamespaceRepository namespaceRepository;
+    @Inject
+    EntityManager entityManager;
+    @Inject
+    KubernetesClientRegistry kubernetesClientRegistry;
 
     WireMock wiremock;
     @ConfigProperty(name = WireMockConfigKey.PORT)
@@ -69,11 +74,6 @@ class ClusterResourcesLoaderTest {
     void setUp() throws ApiException {
         coreV1Api = mock(CoreV1Api.class);
         mockAllNamespaceResources();
-        wiremock.register(WireMock.get(WireMock.urlPathMatching("/api/v1/query"))
-                .willReturn(WireMock.aResponse()
-                        .withStatus(200)
-                        .withHeader("Content-Type", "application/json")
-                        .withBody("{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":[{\"metric\":{},\"value\":[1747924558,\"1\"]}]},\"stats\":{\"seriesFetched\": \"1\",\"executionTimeMsec\":4}}")));
     }
 
     @Test
@@ -210,6 +210,29 @@ void load_resources_for_env_after_update() throws ApiException {
         assertThat(testEnv.getCleanInstallationDate(), equalTo(DATE_2025.toInstant()));
     }
 
+    @Test
+    void skip_environment_when_resource_versions_are_not_changed() throws ApiException {
+        mockNamespaceLoading(CLUSTER_NAME, List.of(NAMESPACE_NAME));
+        mockConfigMaps(List.of(new V1ConfigMap()
+                .metadata(new V1ObjectMeta().name("sd-versions").uid("configmap-uid").resourceVersion("10").creationTimestamp(DATE_2024))
+                .data(Map.of("solution-descriptors-summary", "MyVersion 1.0.0"))), NAMESPACE_NAME);
+        assertThat(clusterResourcesLoader.loadClusterResources(coreV1Api, CLOUD_PASSPORT), equalTo(ClusterSyncResult.CHANGED));
+        Environment testEnv = environmentRepository.findByNameAndCluster(ENV_1, CLUSTER_NAME);
+        assertThat(testEnv.getInputFingerprint(), notNullValue());
+
+        mockConfigMaps(List.of(new V1ConfigMap()
+                .metadata(new V1ObjectMeta().name("sd-versions").uid("configmap-uid").resourceVersion("10").creationTimestamp(DATE_2024))
+                .data(Map.of("solution-descriptors-summary", "Not a real change"))), NAMESPACE_NAME);
+        assertThat(clusterResourcesLoader.loadClusterResources(coreV1Api, CLOUD_PASSPORT), equalTo(ClusterSyncResult.UNCHANGED));
+        assertThat(testEnv.getDeploymentVersion(), equalTo("MyVersion 1.0.0\n"));
+
+        mockConfigMaps(List.of(new V1ConfigMap()
+                .metadata(new V1ObjectMeta().name("sd-versions").uid("configmap-uid").resourceVersion("11").creationTimestamp(DATE_2024))
+                .data(Map.of("solution-descriptors-summary", "MyVersion 2.0.0"))), NAMESPACE_NAME);
+        assertThat(clusterResourcesLoader.loadClusterResources(coreV1Api, CLOUD_PASSPORT), equalTo(ClusterSyncResult.CHANGED));
+        assertThat(testEnv.getDeploymentVersion(), equalTo("MyVersion 2.0.0\n"));
+    }
+
     @Test
     void combine_deployment_version_for_namespaces() throws ApiException {
         CloudPassport cloudPassport = new CloudPassport(CLUSTER_NAME, "42", "https://api.example.com",
@@ -236,6 +259,148 @@ void combine_deployment_version_for_namespaces() throws ApiException {
         assertThat(testEnv.getCleanInstallationDate(), equalTo(DATE_2025.toInstant()));
     }
 
+    @Test
+    void load_config_maps_of_namespaces_concurrently_and_keep_namespace_order() throws ApiException {
+        List<String> namespaceNames = List.of(NAMESPACE_NAME, NAMESPACE_NAME_2, NAMESPACE_NAME_3);
+        CloudPassport cloudPassport = new CloudPassport(CLUSTER_NAME, "42", "https://api.example.com",
+                Set.of(new CloudPassportEnvironment("env-3-namespaces", "some env for tests",
+                        namespaceNames.stream().map(CloudPassportNamespace::new).toList())), null);
+        mockNamespaceLoading(CLUSTER_NAME, namespaceNames);
+        AtomicInteger currentRequests = new AtomicInteger();
+        AtomicInteger maxConcurrentRequests = new AtomicInteger();
+        for (int i = 0; i < namespaceNames.size(); i++) {
+            String namespaceName = namespaceNames.get(i);
+            // the first namespace answers last, so results are merged in the order of completion if it is not deterministic
+            long delayMs = 300L - i * 100L;
+            V1ConfigMapList configMapList = new V1ConfigMapList().items(List.of(new V1ConfigMap()
+                    .metadata(new V1ObjectMeta().name("sd-versions").creationTimestamp(i == 1 ? DATE_2025 : DATE_2024))
+                    .data(Map.of("solution-descriptors-summary", "Version of " + namespaceName))));
+            CoreV1Api.APIlistNamespacedConfigMapRequest configMapRequest = mock(CoreV1Api.APIlistNamespacedConfigMapRequest.class);
+            when(coreV1Api.listNamespacedConfigMap(namespaceName)).thenReturn(configMapRequest);
+            when(configMapRequest.fieldSelector("metadata.name=sd-versions")).thenReturn(configMapRequest);
+            when(configMapRequest.execute()).thenAnswer(invocation -> {
+                int current = currentRequests.incrementAndGet();
+                maxConcurrentRequests.updateAndGet(max -> Math.max(max, current));
+                Thread.sleep(delayMs);
+                currentRequests.decrementAndGet();
+                return configMapList;
+            });
+        }
+
+        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+
+        Environment testEnv = environmentRepository.findByNameAndCluster("env-3-namespaces", CLUSTER_NAME);
+        assertThat(testEnv.getDeploymentVersion(), equalTo("Version of namespace1\nVersion of namespace2\nVersion of namespace3\n"));
+        assertThat(testEnv.getCleanInstallationDate(), equalTo(DATE_2025.toInstant()));
+        assertThat(maxConcurrentRequests.get(), greaterThan(1));
+    }
+
+    @Test
+    void load_versions_config_maps_with_cluster_wide_paginated_listing() throws ApiException {
+        CloudPassport cloudPassport = new CloudPassport(CLUSTER_NAME, "42", "https://api.example.com",
+                Set.of(new CloudPassportEnvironment("env-3-namespaces", "some env for tests",
+                        List.of(new CloudPassportNamespace(NAMESPACE_NAME),
+                                new CloudPassportNamespace(NAMESPACE_NAME_2)))), null);
+        mockNamespaceLoading(CLUSTER_NAME, List.of(NAMESPACE_NAME, NAMESPACE_NAME_2));
+
+        V1ConfigMap configMap1 = new V1ConfigMap()
+                .metadata(new V1ObjectMeta().name("sd-versions").namespace(NAMESPACE_NAME).creationTimestamp(DATE_2025))
+                .data(Map.of("solution-descriptors-summary", "MyVersion 1.0.0"));
+        V1ConfigMap configMap2 = new V1ConfigMap()
+                .metadata(new V1ObjectMeta().name("sd-versions").namespace(NAMESPACE_NAME_2).creationTimestamp(DATE_2024))
+                .data(Map.of("solution-descriptors-summary", "MyVersion 2.0.0"));
+        CoreV1Api.APIlistConfigMapForAllNamespacesRequest clusterWideRequest = mockClusterWideConfigMapRequest();
+        when(clusterWideRequest.execute()).thenReturn(
+                new V1ConfigMapList().metadata(new V1ListMeta()._continue("next-page")).items(List.of(configMap1)),
+                new V1ConfigMapList().metadata(new V1ListMeta()).items(List.of(configMap2)));
+
+        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+
+        Environment testEnv = environmentRepository.findByNameAndCluster("env-3-namespaces", CLUSTER_NAME);
+        assertThat(testEnv.getDeploymentVersion(), equalTo("MyVersion 1.0.0\nMyVersion 2.0.0\n"));
+        assertThat(testEnv.getCleanInstallationDate(), equalTo(DATE_2025.toInstant()));
+        verify(clusterWideRequest)._continue("next-page");
+        verify(coreV1Api, never()).listNamespacedConfigMap(any());
+    }
+
+    @Test
+    void do_not_repeat_denied_cluster_wide_listing_for_the_same_token() throws ApiException {
+        CloudPassport cloudPassport = new CloudPassport(CLUSTER_NAME, "denied-token", "https://api.example.com",
+                Set.of(new CloudPassportEnvironment(ENV_1, "some env for tests", List.of(new CloudPassportNamespace(NAMESPACE_NAME)))), null);
+        kubernetesClientRegistry.getClient(cloudPassport);
+        mockNamespaceLoading(CLUSTER_NAME, List.of(NAMESPACE_NAME));
+
+        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+
+        verify(coreV1Api, times(1)).listConfigMapForAllNamespaces();
+        verify(coreV1Api, times(2)).listNamespacedConfigMap(NAMESPACE_NAME);
+    }
+
+    @Test
+    void apply_watched_namespace_changes_only_to_affected_environments() throws ApiException {
+        CloudPassport cloudPassport = new CloudPassport(CLUSTER_NAME, "42", "https://api.example.com",
+                Set.of(new CloudPassportEnvironment("env-1", "some env for tests", List.of(new CloudPassportNamespace(NAMESPACE_NAME))),
+                        new CloudPassportEnvironment("env-2", "some env for tests", List.of(new CloudPassportNamespace(NAMESPACE_NAME_2)))), null);
+        mockNamespaceLoading(CLUSTER_NAME, List.of(NAMESPACE_NAME, NAMESPACE_NAME_2));
+        mockConfigMaps(List.of(new V1ConfigMap()
+                .metadata(new V1ObjectMeta().name("sd-versions").namespace(NAMESPACE_NAME).creationTimestamp(DATE_2024))
+                .data(Map.of("solution-descriptors-summary", "MyVersion 1.0.0"))), NAMESPACE_NAME);
+        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+
+        Map<String, V1Namespace> k8sNamespaces = Map.of(
+                NAMESPACE_NAME, new V1Namespace().metadata(new V1ObjectMeta().name(NAMESPACE_NAME).uid("uid-1")),
+                NAMESPACE_NAME_2, new V1Namespace().metadata(new V1ObjectMeta().name(NAMESPACE_NAME_2).uid("uid-2")));
+        V1ConfigMap updatedConfigMap = new V1ConfigMap()
+                .metadata(new V1ObjectMeta().name("sd-versions").namespace(NAMESPACE_NAME_2).creationTimestamp(DATE_2025))
+                .data(Map.of("solution-descriptors-summary", "MyVersion 2.0.0"));
+        clusterResourcesLoader.applyNamespaceChanges(cloudPassport, Set.of(NAMESPACE_NAME_2), k8sNamespaces,
+                namespaceName -> NAMESPACE_NAME_2.equals(namespaceName) ? updatedConfigMap : null);
+
+        Environment env1 = environmentRepository.findByNameAndCluster("env-1", CLUSTER_NAME);
+        Environment env2 = environmentRepository.findByNameAndCluster("env-2", CLUSTER_NAME);
+        assertThat(env1.getDeploymentVersion(), equalTo("MyVersion 1.0.0\n"));
+        assertThat(env2.getDeploymentVersion(), equalTo("MyVersion 2.0.0\n"));
+        assertThat(env2.getCleanInstallationDate(), equalTo(DATE_2025.toInstant()));
+    }
+
+    @Test
+    void number_of_queries_does_not_depend_on_number_of_namespaces() throws ApiException {
+        long smallClusterStatements = countStatementsOfRepeatedLoad("small-cluster", 1, 2);
+        long largeClusterStatements = countStatementsOfRepeatedLoad("large-cluster", 10, 5);
+
+        assertThat(largeClusterStatements, equalTo(smallClusterStatements));
+    }
+
+    @Test
+    void write_only_changed_entities_in_batches() throws ApiException {
+        List<String> namespaceNames = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            namespaceNames.add("batch-namespace-" + i);
+        }
+        CloudPassport cloudPassport = new CloudPassport(CLUSTER_NAME, "42", "https://api.example.com",
+                Set.of(new CloudPassportEnvironment("env-20-namespaces", "some env for tests",
+                        namespaceNames.stream().map(CloudPassportNamespace::new).toList())), null);
+        mockNamespaceLoading(CLUSTER_NAME, namespaceNames);
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+        entityManager.flush();
+        assertThat(statistics.getEntityInsertCount(), equalTo(22L));
+        //rows of a table are inserted with one batched statement instead of one statement per row
+        assertThat(statistics.getPrepareStatementCount(), lessThan(15L));
+
+        //namespaces without resourceVersion make the environment to be recomputed
+        mockNamespaceLoading(CLUSTER_NAME, namespaceNames.subList(1, namespaceNames.size()), Map.of(), null);
+        statistics.clear();
+        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+        entityManager.flush();
+        assertThat(statistics.getEntityInsertCount(), equalTo(0L));
+        assertThat(statistics.getEntityUpdateCount(), equalTo(2L));
+        Namespace removedNamespace = namespaceRepository.findByNameAndCluster(namespaceNames.getFirst(), CLUSTER_NAME);
+        assertThat(removedNamespace.isExistsInK8s(), is(false));
+    }
+
     @Test
     void try_to_load_namespace_from_cloud_passport_that_does_not_exist_in_k8s() throws ApiException {
         CloudPassport cloudPassport = new CloudPassport(CLUSTER_NAME, "42", "https://api.example.com",
@@ -262,7 +427,7 @@ void load_resources_from_unreachable_cluster() throws ApiException {
         when(coreV1Api.listNamespace()).thenReturn(nsRequest);
         when(nsRequest.execute()).thenThrow(new ApiException());
 
-        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+        assertThat(clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport), equalTo(ClusterSyncResult.FAILED));
         Environment testEnv = environmentRepository.findByNameAndCluster("env-unreachable", "unreachable-cluster");
         assertThat(testEnv, hasProperty("name", equalTo("env-unreachable")));
         assertThat(testEnv.getNamespaces(), hasSize(1));
@@ -312,6 +477,31 @@ void testHelloEndpoint() {
 
     }
 
+    private long countStatementsOfRepeatedLoad(String clusterName, int environmentsCount, int namespacesPerEnvironment) throws ApiException {
+        Set<CloudPassportEnvironment> environments = new HashSet<>();
+        List<String> namespaceNames = new ArrayList<>();
+        for (int envIndex = 0; envIndex < environmentsCount; envIndex++) {
+            List<CloudPassportNamespace> namespaces = new ArrayList<>();
+            for (int namespaceIndex = 0; namespaceIndex < namespacesPerEnvironment; namespaceIndex++) {
+                String namespaceName = clusterName + "-env-" + envIndex + "-ns-" + namespaceIndex;
+                namespaces.add(new CloudPassportNamespace(namespaceName));
+                namespaceNames.add(namespaceName);
+            }
+            environments.add(new CloudPassportEnvironment(clusterName + "-env-" + envIndex, "env for tests", namespaces));
+        }
+        CloudPassport cloudPassport = new CloudPassport(clusterName, "42", "https://api.example.com", environments, null);
+        mockNamespaceLoading(clusterName, namespaceNames);
+        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
     private void mockConfigMaps(List<V1ConfigMap> configMap1, String targetNamespace) throws ApiException {
         V1ConfigMapList configMapList = new V1ConfigMapList().items(configMap1);
         CoreV1Api.APIlistNamespacedConfigMapRequest configMapRequest = mock(CoreV1Api.APIlistNamespacedConfigMapRequest.class);
@@ -325,6 +515,18 @@ private void mockAllNamespaceResources() throws ApiException {
         when(coreV1Api.listNamespacedConfigMap(any())).thenReturn(configMapRequest);
         when(configMapRequest.fieldSelector(any())).thenReturn(configMapRequest);
         when(configMapRequest.execute()).thenReturn(new V1ConfigMapList());
+
+        CoreV1Api.APIlistConfigMapForAllNamespacesRequest clusterWideRequest = mockClusterWideConfigMapRequest();
+        when(clusterWideRequest.execute()).thenThrow(new ApiException(403, "Forbidden"));
+    }
+
+    private CoreV1Api.APIlistConfigMapForAllNamespacesRequest mockClusterWideConfigMapRequest() {
+        CoreV1Api.APIlistConfigMapForAllNamespacesRequest request = mock(CoreV1Api.APIlistConfigMapForAllNamespacesRequest.class);
+        when(coreV1Api.listConfigMapForAllNamespaces()).thenReturn(request);
+        when(request.fieldSelector("metadata.name=" + "sd-versions")).thenReturn(request);
+        when(request.limit(any())).thenReturn(request);
+        when(request._continue(any())).thenReturn(request);
+        return request;
     }
 
     private void mockNamespaceLoading(String clusterName, List<String> namespaceNames) throws ApiException {
@@ -334,11 +536,16 @@ private void mockNamespaceLoading(String clusterName, List<String> namespaceName
     }
 
     private void mockNamespaceLoading(String clusterName, List<String> namespaceNames, Map<String, String> labels) throws ApiException {
+        mockNamespaceLoading(clusterName, namespaceNames, labels, "1");
+    }
+
+    private void mockNamespaceLoading(String clusterName, List<String> namespaceNames, Map<String, String> labels, String resourceVersion) throws ApiException {
         List<V1Namespace> v1Namespaces = namespaceNames
                 .stream()
                 .map(namespaceName -> new V1Namespace().metadata(new V1ObjectMeta()
                         .name(namespaceName)
                         .uid(namespaceName + clusterName)
+                        .resourceVersion(resourceVersion)
                         .labels(labels)))
                 .toList();
         V1NamespaceList nsList = new V1NamespaceList().items(v1Namespaces);
@@ -0,0 +1,113 @@
+package org.qubership.colly;
+
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMapList;
+import io.kubernetes.client.openapi.models.V1Namespace;
+import io.kubernetes.client.openapi.models.V1NamespaceList;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.qubership.colly.cloudpassport.CloudPassport;
+import org.qubership.colly.cloudpassport.CloudPassportEnvironment;
+import org.qubership.colly.cloudpassport.CloudPassportNamespace;
+import org.qubership.colly.db.ClusterRepository;
+import org.qubership.colly.db.EnvironmentRepository;
+import org.qubership.colly.db.data.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class ClusterResourcesLoaderTransactionTest {
+
+    private static final String CLUSTER_NAME = "transaction-test-cluster";
+
+    @Inject
+    ClusterResourcesLoader clusterResourcesLoader;
+
+    @Inject
+    EnvironmentRepository environmentRepository;
+
+    @Inject
+    ClusterRepository clusterRepository;
+
+    @AfterEach
+    void tearDown() {
+        QuarkusTransaction.requiringNew().run(() -> clusterRepository.delete(clusterRepository.findByName(CLUSTER_NAME)));
+    }
+
+    @Test
+    void fetch_cluster_resources_outside_of_transaction() throws ApiException {
+        CloudPassport cloudPassport = new CloudPassport(CLUSTER_NAME, "42", "https://api.example.com",
+                Set.of(new CloudPassportEnvironment("env", "some env for tests", List.of(new CloudPassportNamespace("namespace")))), null);
+        AtomicBoolean transactionActiveDuringFetch = new AtomicBoolean(true);
+        CoreV1Api coreV1Api = mock(CoreV1Api.class);
+        CoreV1Api.APIlistNamespaceRequest namespaceRequest = mock(CoreV1Api.APIlistNamespaceRequest.class);
+        when(coreV1Api.listNamespace()).thenReturn(namespaceRequest);
+        when(namespaceRequest.execute()).thenAnswer(invocation -> {
+            transactionActiveDuringFetch.set(QuarkusTransaction.isActive());
+            return new V1NamespaceList().items(List.of(new V1Namespace().metadata(new V1ObjectMeta().name("namespace").uid("namespace-uid"))));
+        });
+        CoreV1Api.APIlistConfigMapForAllNamespacesRequest configMapRequest = mock(CoreV1Api.APIlistConfigMapForAllNamespacesRequest.class);
+        when(coreV1Api.listConfigMapForAllNamespaces()).thenReturn(configMapRequest);
+        when(configMapRequest.fieldSelector(any())).thenReturn(configMapRequest);
+        when(configMapRequest.limit(any())).thenReturn(configMapRequest);
+        when(configMapRequest._continue(any())).thenReturn(configMapRequest);
+        when(configMapRequest.execute()).thenThrow(new ApiException(403, "Forbidden"));
+        CoreV1Api.APIlistNamespacedConfigMapRequest namespacedConfigMapRequest = mock(CoreV1Api.APIlistNamespacedConfigMapRequest.class);
+        when(coreV1Api.listNamespacedConfigMap(any())).thenReturn(namespacedConfigMapRequest);
+        when(namespacedConfigMapRequest.fieldSelector(any())).thenReturn(namespacedConfigMapRequest);
+        when(namespacedConfigMapRequest.execute()).thenAnswer(invocation -> {
+            transactionActiveDuringFetch.compareAndSet(false, QuarkusTransaction.isActive());
+            return new V1ConfigMapList();
+        });
+
+        clusterResourcesLoader.loadClusterResources(coreV1Api, cloudPassport);
+
+        assertThat(transactionActiveDuringFetch.get(), is(false));
+        Environment environment = QuarkusTransaction.requiringNew().call(() -> environmentRepository.findByNameAndCluster("env", CLUSTER_NAME));
+        assertThat(environment, notNullValue());
+        assertThat(environment.getCluster().isSynced(), is(true));
+    }
+
+    @Test
+    void apply_watch_updates_of_new_cluster_one_at_a_time() throws Exception {
+        CloudPassport cloudPassport = new CloudPassport(CLUSTER_NAME, "42", "https://api.example.com",
+                Set.of(new CloudPassportEnvironment("env", "some env for tests", List.of(new CloudPassportNamespace("namespace")))), null);
+        Map<String, V1Namespace> k8sNamespaces = Map.of("namespace", new V1Namespace().metadata(new V1ObjectMeta().name("namespace").uid("namespace-uid")));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    clusterResourcesLoader.applyNamespaceChanges(cloudPassport, Set.of("namespace"), k8sNamespaces, namespaceName -> null);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long environments = QuarkusTransaction.requiringNew().call(() -> environmentRepository.count("name = ?1 and cluster.name = ?2", "env", CLUSTER_NAME));
+        assertThat(environments, equalTo(1L));
+    }
+}
@@ -0,0 +1,109 @@
+package org.qubership.colly;
+
+import io.quarkus.test.component.QuarkusComponentTest;
+import io.quarkus.test.component.TestConfigProperty;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.qubership.colly.cloudpassport.CloudPassport;
+import org.qubership.colly.dto.ClusterScheduleStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusComponentTest
+@TestConfigProperty(key = "colly.cluster-sync.interval", value = "1m")
+@TestConfigProperty(key = "colly.cluster-sync.max-idle-interval", value = "10m")
+@TestConfigProperty(key = "colly.cluster-sync.max-backoff", value = "15m")
+@TestConfigProperty(key = "colly.cluster-sync.jitter", value = "0")
+class ClusterSyncSchedulerTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+    private static final CloudPassport UNREACHABLE_CLUSTER = new CloudPassport("unreachable-cluster", "token", "https://unreachable:6443", Set.of(), null);
+    private static final CloudPassport TEST_CLUSTER = new CloudPassport("test-cluster", "token", "https://test:6443", Set.of(), null);
+
+    @Inject
+    ClusterSyncScheduler scheduler;
+
+    @Test
+    void spread_first_synchronizations_of_new_clusters_across_the_interval() {
+        List<CloudPassport> clusters = IntStream.range(0, 100)
+                .mapToObj(i -> new CloudPassport("cluster-" + i, "token", "https://cluster-" + i + ":6443", Set.of(), null))
+                .toList();
+
+        int dueNow = scheduler.selectDueClusters(clusters, false, NOW).size();
+        int dueInHalfOfInterval = scheduler.selectDueClusters(clusters, false, NOW.plusSeconds(30)).size();
+        int dueAfterInterval = scheduler.selectDueClusters(clusters, false, NOW.plusSeconds(60)).size();
+
+        assertThat(dueNow, lessThan(10));
+        assertThat(dueInHalfOfInterval, allOf(greaterThan(20), lessThan(80)));
+        assertThat(dueAfterInterval, equalTo(100));
+    }
+
+    @Test
+    void forced_run_selects_all_clusters() {
+        assertThat(scheduler.selectDueClusters(List.of(TEST_CLUSTER, UNREACHABLE_CLUSTER), true, NOW),
+                contains(TEST_CLUSTER, UNREACHABLE_CLUSTER));
+    }
+
+    @Test
+    void back_off_exponentially_for_failing_cluster_and_reset_after_success() {
+        scheduler.selectDueClusters(List.of(UNREACHABLE_CLUSTER), true, NOW);
+
+        assertThat(nextDelay(UNREACHABLE_CLUSTER, ClusterSyncResult.FAILED), equalTo(Duration.ofMinutes(2)));
+        assertThat(nextDelay(UNREACHABLE_CLUSTER, ClusterSyncResult.FAILED), equalTo(Duration.ofMinutes(4)));
+        assertThat(nextDelay(UNREACHABLE_CLUSTER, ClusterSyncResult.FAILED), equalTo(Duration.ofMinutes(8)));
+        assertThat(nextDelay(UNREACHABLE_CLUSTER, ClusterSyncResult.FAILED), equalTo(Duration.ofMinutes(15)));
+        assertThat(nextDelay(UNREACHABLE_CLUSTER, ClusterSyncResult.FAILED), equalTo(Duration.ofMinutes(15)));
+        assertThat(scheduler.getStatus().getFirst().consecutiveFailures(), equalTo(5));
+
+        assertThat(scheduler.selectDueClusters(List.of(UNREACHABLE_CLUSTER), false, NOW.plus(Duration.ofMinutes(14))), empty());
+        assertThat(scheduler.selectDueClusters(List.of(UNREACHABLE_CLUSTER), false, NOW.plus(Duration.ofMinutes(15))), contains(UNREACHABLE_CLUSTER));
+
+        assertThat(nextDelay(UNREACHABLE_CLUSTER, ClusterSyncResult.CHANGED), equalTo(Duration.ofMinutes(1)));
+        assertThat(scheduler.getStatus().getFirst().consecutiveFailures(), equalTo(0));
+    }
+
+    @Test
+    void increase_interval_of_cluster_that_is_not_changed() {
+        scheduler.selectDueClusters(List.of(TEST_CLUSTER), true, NOW);
+
+        assertThat(nextDelay(TEST_CLUSTER, ClusterSyncResult.UNCHANGED), equalTo(Duration.ofMinutes(2)));
+        assertThat(nextDelay(TEST_CLUSTER, ClusterSyncResult.UNCHANGED), equalTo(Duration.ofMinutes(4)));
+        assertThat(nextDelay(TEST_CLUSTER, ClusterSyncResult.UNCHANGED), equalTo(Duration.ofMinutes(8)));
+        assertThat(nextDelay(TEST_CLUSTER, ClusterSyncResult.UNCHANGED), equalTo(Duration.ofMinutes(10)));
+        assertThat(nextDelay(TEST_CLUSTER, ClusterSyncResult.CHANGED), equalTo(Duration.ofMinutes(1)));
+        assertThat(scheduler.getStatus().getFirst().unchangedSyncs(), equalTo(0));
+    }
+
+    @Test
+    @TestConfigProperty(key = "colly.cluster-sync.jitter", value = "0.2")
+    void shift_next_synchronization_by_jitter() {
+        List<Duration> delays = IntStream.range(0, 50)
+                .mapToObj(i -> nextDelay(TEST_CLUSTER, ClusterSyncResult.CHANGED))
+                .toList();
+
+        assertThat(delays, everyItem(allOf(greaterThanOrEqualTo(Duration.ofSeconds(48)), lessThanOrEqualTo(Duration.ofSeconds(72)))));
+        assertThat(Set.copyOf(delays).size(), greaterThan(1));
+    }
+
+    @Test
+    void remove_schedules_of_clusters_removed_from_cloud_passports() {
+        scheduler.selectDueClusters(List.of(TEST_CLUSTER, UNREACHABLE_CLUSTER), true, NOW);
+        scheduler.selectDueClusters(List.of(TEST_CLUSTER), true, NOW);
+
+        assertThat(scheduler.getStatus().stream().map(ClusterScheduleStatus::name).toList(), contains("test-cluster"));
+    }
+
+    private Duration nextDelay(CloudPassport cluster, ClusterSyncResult result) {
+        scheduler.clusterSynced(cluster.name(), result, NOW);
+        return Duration.between(NOW, scheduler.getStatus().stream()
+                .filter(status -> status.name().equals(cluster.name()))
+                .findFirst().orElseThrow().nextSyncAt());
+    }
+}
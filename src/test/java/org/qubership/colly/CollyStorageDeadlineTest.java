@@ -0,0 +1,108 @@
+package org.qubership.colly;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.qubership.colly.cloudpassport.CloudPassport;
+import org.qubership.colly.dto.ClusterSyncStatus;
+import org.qubership.colly.dto.SyncRunStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+@TestProfile(CollyStorageDeadlineTest.DeadlinesProfile.class)
+class CollyStorageDeadlineTest {
+
+    @Inject
+    CollyStorage collyStorage;
+
+    @InjectMock
+    CloudPassportLoader cloudPassportLoader;
+
+    @InjectMock
+    ClusterResourcesLoader clusterResourcesLoader;
+
+    @Test
+    void interrupt_cluster_that_exceeds_its_time_budget() throws InterruptedException {
+        CloudPassport hangingCluster = new CloudPassport("hanging-cluster", "token", "https://hanging:6443", Set.of(), null);
+        CloudPassport stableCluster = new CloudPassport("stable-cluster", "token", "https://stable:6443", Set.of(), null);
+        when(cloudPassportLoader.loadCloudPassports()).thenReturn(List.of(hangingCluster, stableCluster));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            CloudPassport cloudPassport = invocation.getArgument(0);
+            if (cloudPassport.name().equals("hanging-cluster")) {
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new IllegalStateException("Interrupted", e);
+                }
+            }
+            return ClusterSyncResult.CHANGED;
+        }).when(clusterResourcesLoader).loadClusterResources(any(CloudPassport.class));
+
+        SyncRun syncRun = new SyncRun("test", true);
+        long start = System.currentTimeMillis();
+        collyStorage.executeTask(syncRun);
+        long duration = System.currentTimeMillis() - start;
+
+        assertThat(duration, lessThan(3_000L));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "Hanging cluster is not interrupted");
+        Map<String, ClusterSyncStatus> statuses = syncRun.toStatus().clusters().stream()
+                .collect(Collectors.toMap(ClusterSyncStatus::name, Function.identity()));
+        assertThat(statuses.get("hanging-cluster").state(), equalTo("FAILED"));
+        assertThat(statuses.get("hanging-cluster").error(), containsString("Time budget"));
+        assertThat(statuses.get("stable-cluster").state(), equalTo("COMPLETED"));
+        assertThat(statuses.get("stable-cluster").result(), equalTo("CHANGED"));
+    }
+
+    @Test
+    void cancel_clusters_that_are_not_completed_before_run_deadline() {
+        List<CloudPassport> cloudPassports = IntStream.range(0, 20)
+                .mapToObj(i -> new CloudPassport("slow-cluster-" + i, "token", "https://slow-" + i + ":6443", Set.of(), null))
+                .toList();
+        when(cloudPassportLoader.loadCloudPassports()).thenReturn(cloudPassports);
+        doAnswer(invocation -> {
+            Thread.sleep(30_000);
+            return ClusterSyncResult.CHANGED;
+        }).when(clusterResourcesLoader).loadClusterResources(any(CloudPassport.class));
+
+        SyncRun syncRun = new SyncRun("test", true);
+        long start = System.currentTimeMillis();
+        collyStorage.executeTask(syncRun);
+        long duration = System.currentTimeMillis() - start;
+
+        // 5 threads synchronize 20 clusters in waves of 300ms, so the last wave is cancelled by the run deadline of 1s
+        assertThat(duration, allOf(greaterThanOrEqualTo(1_000L), lessThan(3_000L)));
+        SyncRunStatus status = syncRun.toStatus();
+        assertThat(status.clustersCompleted(), equalTo(20));
+        assertThat(status.clusters().stream().map(ClusterSyncStatus::state).toList(), everyItem(equalTo("FAILED")));
+        assertThat(status.clusters().stream().map(ClusterSyncStatus::error).toList(),
+                hasItem(containsString("Synchronization run deadline")));
+    }
+
+    public static class DeadlinesProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("colly.cluster-sync.cluster-timeout", "300ms",
+                    "colly.cluster-sync.run-timeout", "1s",
+                    "colly.cluster-resource-loader.thread-pool-size", "5");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.qubership.colly;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.qubership.colly.cloudpassport.CloudPassport;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+@TestProfile(CollyStorageVirtualThreadsTest.VirtualThreadsProfile.class)
+class CollyStorageVirtualThreadsTest {
+
+    private static final int MAX_CONCURRENCY = 100;
+
+    @Inject
+    CollyStorage collyStorage;
+
+    @InjectMock
+    CloudPassportLoader cloudPassportLoader;
+
+    @InjectMock
+    ClusterResourcesLoader clusterResourcesLoader;
+
+    @Test
+    void executeTask_virtualThreads_wallTimeShouldStayNearlyFlatWhenClusterCountGrows() {
+        final int simulatedWorkTimeMs = 100;
+        AtomicInteger maxConcurrentExecutions = new AtomicInteger(0);
+        AtomicInteger currentConcurrentExecutions = new AtomicInteger(0);
+        doAnswer(invocation -> {
+            int current = currentConcurrentExecutions.incrementAndGet();
+            maxConcurrentExecutions.updateAndGet(max -> Math.max(max, current));
+            Thread.sleep(simulatedWorkTimeMs);
+            currentConcurrentExecutions.decrementAndGet();
+            return null;
+        }).when(clusterResourcesLoader).loadClusterResources(any(CloudPassport.class));
+
+        Map<Integer, Long> durations = new LinkedHashMap<>();
+        // the first run warms up the executor and class loading and is not measured
+        for (int clusterCount : new int[]{1, 10, 25, 50, 100}) {
+            List<CloudPassport> cloudPassports = IntStream.range(0, clusterCount)
+                    .mapToObj(i -> new CloudPassport("virtual-cluster" + i, "token" + i, "host" + i, Set.of(), null))
+                    .toList();
+            when(cloudPassportLoader.loadCloudPassports()).thenReturn(cloudPassports);
+
+            long startTime = System.currentTimeMillis();
+            collyStorage.executeTask();
+            durations.put(clusterCount, System.currentTimeMillis() - startTime);
+        }
+        durations.remove(1);
+
+        // every run is a single wave of blocking calls, so it takes about the time of one call regardless of the cluster count
+        durations.forEach((clusterCount, duration) -> assertTrue(duration < simulatedWorkTimeMs * 4L,
+                String.format("Synchronization of %d clusters took %dms but should be close to %dms", clusterCount, duration, simulatedWorkTimeMs)));
+        assertTrue(maxConcurrentExecutions.get() > 50, "Expected all clusters to be synchronized at once but got max: " + maxConcurrentExecutions.get());
+    }
+
+    @Test
+    void executeTask_virtualThreads_shouldRespectConcurrencyLimit() {
+        final int clusterCount = MAX_CONCURRENCY * 2;
+        List<CloudPassport> cloudPassports = IntStream.range(0, clusterCount)
+                .mapToObj(i -> new CloudPassport("limited-cluster" + i, "token" + i, "host" + i, Set.of(), null))
+                .toList();
+        when(cloudPassportLoader.loadCloudPassports()).thenReturn(cloudPassports);
+
+        AtomicInteger maxConcurrentExecutions = new AtomicInteger(0);
+        AtomicInteger currentConcurrentExecutions = new AtomicInteger(0);
+        doAnswer(invocation -> {
+            int current = currentConcurrentExecutions.incrementAndGet();
+            maxConcurrentExecutions.updateAndGet(max -> Math.max(max, current));
+            Thread.sleep(50);
+            currentConcurrentExecutions.decrementAndGet();
+            return null;
+        }).when(clusterResourcesLoader).loadClusterResources(any(CloudPassport.class));
+
+        collyStorage.executeTask();
+
+        verify(clusterResourcesLoader, times(clusterCount)).loadClusterResources(any(CloudPassport.class));
+        assertTrue(maxConcurrentExecutions.get() <= MAX_CONCURRENCY,
+                "Expected at most " + MAX_CONCURRENCY + " concurrent executions but got " + maxConcurrentExecutions.get());
+    }
+
+    public static class VirtualThreadsProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("colly.cluster-resource-loader.virtual-threads", "true",
+                    "colly.cluster-resource-loader.max-concurrency", String.valueOf(MAX_CONCURRENCY));
+        }
+    }
+}
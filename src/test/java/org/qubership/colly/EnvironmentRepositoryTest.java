@@ -0,0 +1,92 @@
+package org.qubership.colly;
+
+import io.quarkus.test.TestTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.qubership.colly.db.ClusterRepository;
+import org.qubership.colly.db.EnvironmentRepository;
+import org.qubership.colly.db.data.Cluster;
+import org.qubership.colly.db.data.Environment;
+import org.qubership.colly.db.data.Namespace;
+import org.qubership.colly.dto.EnvironmentDTO;
+import org.qubership.colly.dto.NamespaceDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusTest
+@TestTransaction
+class EnvironmentRepositoryTest {
+
+    @Inject
+    EnvironmentRepository environmentRepository;
+    @Inject
+    ClusterRepository clusterRepository;
+    @Inject
+    EntityManager entityManager;
+
+    @Test
+    void number_of_queries_does_not_depend_on_number_of_environments() {
+        long smallClusterStatements = countStatementsOfListing("small-repository-cluster", 2);
+        long largeClusterStatements = countStatementsOfListing("large-repository-cluster", 20);
+
+        assertThat(largeClusterStatements, equalTo(smallClusterStatements));
+    }
+
+    @Test
+    void read_namespaces_and_labels_in_stable_order() {
+        createCluster("ordered-repository-cluster", 3);
+
+        List<EnvironmentDTO> environments = environmentRepository.listEnvironmentDTOs().stream()
+                .filter(environment -> environment.cluster().name().equals("ordered-repository-cluster"))
+                .toList();
+
+        assertThat(environments, hasSize(3));
+        for (EnvironmentDTO environment : environments) {
+            assertThat(environment.namespaces().stream().map(NamespaceDTO::name).toList(),
+                    contains(environment.name() + "-ns-a", environment.name() + "-ns-b", environment.name() + "-ns-c"));
+            assertThat(environment.labels(), contains("label-a", "label-b", "label-c"));
+        }
+    }
+
+    private long countStatementsOfListing(String clusterName, int environmentsCount) {
+        createCluster(clusterName, environmentsCount);
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<EnvironmentDTO> environments = environmentRepository.listEnvironmentDTOs();
+        assertThat(environments.stream().filter(environment -> environment.cluster().name().equals(clusterName)).count(),
+                equalTo((long) environmentsCount));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createCluster(String clusterName, int environmentsCount) {
+        Cluster cluster = new Cluster(clusterName);
+        clusterRepository.persist(cluster);
+        for (int envIndex = 0; envIndex < environmentsCount; envIndex++) {
+            Environment environment = new Environment(clusterName + "-env-" + envIndex);
+            environment.setCluster(cluster);
+            //rows are inserted in reverse order, so the order of the result does not come from the insertion
+            environment.setLabels(List.of("label-c", "label-b", "label-a"));
+            List<Namespace> namespaces = new ArrayList<>();
+            for (String suffix : List.of("c", "b", "a")) {
+                Namespace namespace = new Namespace();
+                namespace.setUid(environment.getName() + "-uid-" + suffix);
+                namespace.setName(environment.getName() + "-ns-" + suffix);
+                namespace.setCluster(cluster);
+                namespace.setEnvironment(environment);
+                namespaces.add(namespace);
+            }
+            environment.setNamespaces(namespaces);
+            environmentRepository.persist(environment);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
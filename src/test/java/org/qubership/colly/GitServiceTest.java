@@ -0,0 +1,78 @@
+package org.qubership.colly;
+
+import io.quarkus.test.component.QuarkusComponentTest;
+import jakarta.inject.Inject;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusComponentTest
+class GitServiceTest {
+
+    @Inject
+    GitService gitService;
+
+    @Test
+    void update_existing_clone_with_new_commits(@TempDir Path tempDir) throws IOException, GitAPIException {
+        Path remote = tempDir.resolve("remote");
+        File workingCopy = tempDir.resolve("working-copy").toFile();
+        try (Git remoteGit = Git.init().setDirectory(remote.toFile()).call()) {
+            String firstCommit = commitFile(remoteGit, remote, "cluster.yml", "version: 1");
+
+            String clonedHead = gitService.cloneOrUpdateRepository(remote.toUri().toString(), workingCopy);
+            assertThat(clonedHead, equalTo(firstCommit));
+
+            Files.writeString(workingCopy.toPath().resolve("cluster.yml"), "local change");
+            Files.writeString(workingCopy.toPath().resolve("untracked.yml"), "garbage");
+            String secondCommit = commitFile(remoteGit, remote, "cluster.yml", "version: 2");
+
+            String updatedHead = gitService.cloneOrUpdateRepository(remote.toUri().toString(), workingCopy);
+            assertThat(updatedHead, equalTo(secondCommit));
+            assertThat(Files.readString(workingCopy.toPath().resolve("cluster.yml")), equalTo("version: 2"));
+            assertThat(Files.exists(workingCopy.toPath().resolve("untracked.yml")), is(false));
+
+            String unchangedHead = gitService.cloneOrUpdateRepository(remote.toUri().toString(), workingCopy);
+            assertThat(unchangedHead, equalTo(secondCommit));
+        }
+    }
+
+    @Test
+    void clone_again_when_folder_contains_another_repository(@TempDir Path tempDir) throws IOException, GitAPIException {
+        Path firstRemote = tempDir.resolve("first-remote");
+        Path secondRemote = tempDir.resolve("second-remote");
+        File workingCopy = tempDir.resolve("working-copy").toFile();
+        try (Git firstGit = Git.init().setDirectory(firstRemote.toFile()).call();
+             Git secondGit = Git.init().setDirectory(secondRemote.toFile()).call()) {
+            commitFile(firstGit, firstRemote, "first.yml", "first");
+            String secondCommit = commitFile(secondGit, secondRemote, "second.yml", "second");
+
+            gitService.cloneOrUpdateRepository(firstRemote.toUri().toString(), workingCopy);
+            String head = gitService.cloneOrUpdateRepository(secondRemote.toUri().toString(), workingCopy);
+
+            assertThat(head, equalTo(secondCommit));
+            assertThat(Files.exists(workingCopy.toPath().resolve("first.yml")), is(false));
+            assertThat(Files.exists(workingCopy.toPath().resolve("second.yml")), is(true));
+        }
+    }
+
+    private String commitFile(Git git, Path repository, String fileName, String content) throws IOException, GitAPIException {
+        Files.writeString(repository.resolve(fileName), content);
+        git.add().addFilepattern(fileName).call();
+        return git.commit()
+                .setMessage("update " + fileName)
+                .setAuthor("test", "test@example.com")
+                .setCommitter("test", "test@example.com")
+                .setSign(false)
+                .call()
+                .name();
+    }
+}
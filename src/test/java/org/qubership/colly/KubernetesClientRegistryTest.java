@@ -0,0 +1,92 @@
+package org.qubership.colly;
+
+import io.kubernetes.client.openapi.ApiClient;
+import io.quarkus.test.component.QuarkusComponentTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.qubership.colly.cloudpassport.CloudPassport;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusComponentTest
+class KubernetesClientRegistryTest {
+
+    private static final CloudPassport CLUSTER = new CloudPassport("cluster", "token", "https://api.example.com:6443", Set.of(), null);
+
+    @Inject
+    KubernetesClientRegistry registry;
+
+    @Test
+    void reuse_client_for_the_same_cloud_passport() {
+        ApiClient first = registry.getClient(CLUSTER);
+        ApiClient second = registry.getClient(new CloudPassport("cluster", "token", "https://api.example.com:6443", Set.of(), null));
+
+        assertThat(second, sameInstance(first));
+        assertThat(first.getBasePath(), equalTo("https://api.example.com:6443"));
+        assertThat(first.getHttpClient().connectTimeoutMillis(), equalTo(10_000));
+        assertThat(first.getHttpClient().readTimeoutMillis(), equalTo(30_000));
+        KubernetesClientRegistry.Stats stats = registry.stats();
+        assertThat(stats.clients(), equalTo(1));
+        assertThat(stats.createdClients(), equalTo(1L));
+        assertThat(stats.reusedClients(), equalTo(1L));
+    }
+
+    @Test
+    void recreate_client_when_token_or_host_is_changed() {
+        ApiClient first = registry.getClient(CLUSTER);
+        ApiClient withNewToken = registry.getClient(new CloudPassport("cluster", "new-token", "https://api.example.com:6443", Set.of(), null));
+        ApiClient withNewHost = registry.getClient(new CloudPassport("cluster", "new-token", "https://new.example.com:6443", Set.of(), null));
+
+        assertThat(withNewToken, not(sameInstance(first)));
+        assertThat(withNewHost, not(sameInstance(withNewToken)));
+        KubernetesClientRegistry.Stats stats = registry.stats();
+        assertThat(stats.clients(), equalTo(1));
+        assertThat(stats.evictedClients(), equalTo(2L));
+    }
+
+    @Test
+    void share_connection_pool_between_clusters_and_evict_removed_clusters() {
+        ApiClient first = registry.getClient(CLUSTER);
+        ApiClient other = registry.getClient(new CloudPassport("other-cluster", "token", "https://other.example.com:6443", Set.of(), null));
+        assertThat(other.getHttpClient().connectionPool(), sameInstance(first.getHttpClient().connectionPool()));
+        assertThat(other.getHttpClient().dispatcher(), sameInstance(first.getHttpClient().dispatcher()));
+
+        registry.retainClusters(List.of("other-cluster"));
+
+        KubernetesClientRegistry.Stats stats = registry.stats();
+        assertThat(stats.clients(), equalTo(1));
+        assertThat(stats.evictedClients(), equalTo(1L));
+        assertThat(registry.getClient(CLUSTER), not(sameInstance(first)));
+    }
+
+    @Test
+    void remember_denied_cluster_wide_listing_until_token_is_changed() {
+        Instant now = Instant.now();
+        registry.getClient(CLUSTER);
+        assertThat(registry.isClusterWideListingDenied(CLUSTER, now), equalTo(false));
+
+        registry.denyClusterWideListing(CLUSTER, now);
+        assertThat(registry.isClusterWideListingDenied(CLUSTER, now), equalTo(true));
+
+        CloudPassport withNewToken = new CloudPassport("cluster", "new-token", "https://api.example.com:6443", Set.of(), null);
+        assertThat(registry.isClusterWideListingDenied(withNewToken, now), equalTo(false));
+        registry.getClient(withNewToken);
+        assertThat(registry.isClusterWideListingDenied(withNewToken, now), equalTo(false));
+    }
+
+    @Test
+    void retry_denied_cluster_wide_listing_after_retry_interval() {
+        Instant deniedAt = Instant.now();
+        registry.getClient(CLUSTER);
+        registry.denyClusterWideListing(CLUSTER, deniedAt);
+
+        assertThat(registry.isClusterWideListingDenied(CLUSTER, deniedAt.plus(Duration.ofMinutes(59))), equalTo(true));
+        assertThat(registry.isClusterWideListingDenied(CLUSTER, deniedAt.plus(Duration.ofHours(1))), equalTo(false));
+    }
+}
@@ -0,0 +1,191 @@
+package org.qubership.colly;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import io.quarkiverse.wiremock.devservice.ConnectWireMock;
+import io.quarkiverse.wiremock.devservice.WireMockConfigKey;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.qubership.colly.cloudpassport.CloudPassport;
+import org.qubership.colly.cloudpassport.CloudPassportEnvironment;
+import org.qubership.colly.cloudpassport.CloudPassportNamespace;
+import org.qubership.colly.db.ClusterRepository;
+import org.qubership.colly.db.EnvironmentRepository;
+import org.qubership.colly.db.MonitoringHistoryRepository;
+import org.qubership.colly.db.data.Cluster;
+import org.qubership.colly.db.data.Environment;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusTest
+@ConnectWireMock
+class MonitoringRefresherTest {
+
+    private static final String CLUSTER_NAME = "monitoring-cluster";
+
+    @Inject
+    MonitoringRefresher monitoringRefresher;
+
+    @Inject
+    ClusterRepository clusterRepository;
+
+    @Inject
+    EnvironmentRepository environmentRepository;
+
+    @Inject
+    CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Inject
+    MonitoringHistoryStore monitoringHistoryStore;
+
+    @Inject
+    MonitoringHistoryRepository monitoringHistoryRepository;
+
+    WireMock wiremock;
+
+    @ConfigProperty(name = WireMockConfigKey.PORT)
+    Integer port;
+
+    @ConfigProperty(name = "colly.monitoring-refresh.ttl")
+    Duration ttl;
+
+    private URI monitoringUri;
+
+    @BeforeEach
+    void setUp() {
+        wiremock.resetRequests();
+        QuarkusTransaction.requiringNew().run(() -> {
+            Cluster cluster = new Cluster(CLUSTER_NAME);
+            clusterRepository.persist(cluster);
+            for (String environmentName : List.of("env-1-namespace", "env-2-namespaces")) {
+                Environment environment = new Environment(environmentName);
+                environment.setCluster(cluster);
+                environmentRepository.persist(environment);
+            }
+        });
+        monitoringUri = URI.create("http://localhost:" + port);
+        monitoringRefresher.retainClusters(List.of(new CloudPassport(CLUSTER_NAME, "42", "https://api.example.com",
+                Set.of(new CloudPassportEnvironment("env-1-namespace", "some env for tests",
+                                List.of(new CloudPassportNamespace("namespace1"))),
+                        new CloudPassportEnvironment("env-2-namespaces", "some env for tests",
+                                List.of(new CloudPassportNamespace("namespace2"), new CloudPassportNamespace("namespace3")))),
+                monitoringUri)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitoringRefresher.retainClusters(List.of());
+        circuitBreakerRegistry.recordSuccess(monitoringUri.toString());
+        wiremock.resetMappings();
+        QuarkusTransaction.requiringNew().run(() -> {
+            environmentRepository.list("cluster.name", CLUSTER_NAME).forEach(Environment::delete);
+            clusterRepository.delete(clusterRepository.findByName(CLUSTER_NAME));
+        });
+        monitoringHistoryStore.flush();
+    }
+
+    @Test
+    void write_monitoring_data_to_db_only_when_it_is_changed() {
+        mockRunningPods(3, 4, 5);
+        mockFailedDeployments();
+        Instant now = Instant.now();
+
+        assertThat(monitoringRefresher.refresh(now), equalTo(2));
+        assertThat(monitoringDataOf("env-1-namespace"), equalTo(Map.of("Running Pods", "3")));
+        assertThat(monitoringDataOf("env-2-namespaces"), equalTo(Map.of("Running Pods", "9", "Failed Deployments", "1")));
+
+        assertThat(monitoringRefresher.refresh(now.plusSeconds(60)), equalTo(0));
+
+        mockRunningPods(6, 4, 5);
+        assertThat(monitoringRefresher.refresh(now.plusSeconds(120)), equalTo(1));
+        assertThat(monitoringDataOf("env-1-namespace"), equalTo(Map.of("Running Pods", "6")));
+        // one query per batched parameter for the whole cluster on every refresh
+        wiremock.verifyThat(6, WireMock.postRequestedFor(WireMock.urlPathEqualTo("/api/v1/query"))
+                .withRequestBody(WireMock.containing("namespace1")));
+    }
+
+    @Test
+    void clear_monitoring_data_that_is_not_refreshed_during_ttl() {
+        mockRunningPods(3, 4, 5);
+        mockFailedDeployments();
+        Instant now = Instant.now();
+        assertThat(monitoringRefresher.refresh(now), equalTo(2));
+
+        wiremock.register(WireMock.post(WireMock.urlPathEqualTo("/api/v1/query")).willReturn(WireMock.serverError()));
+
+        assertThat(monitoringRefresher.refresh(now.plusSeconds(60)), equalTo(0));
+        assertThat(monitoringDataOf("env-1-namespace"), equalTo(Map.of("Running Pods", "3")));
+
+        assertThat(monitoringRefresher.refresh(now.plus(ttl).plusSeconds(1)), equalTo(2));
+        assertThat(monitoringDataOf("env-1-namespace"), anEmptyMap());
+        assertThat(monitoringDataOf("env-2-namespaces"), anEmptyMap());
+    }
+
+    @Test
+    void skip_infinite_value_of_one_namespace_in_batched_query() {
+        wiremock.register(WireMock.post(WireMock.urlPathEqualTo("/api/v1/query"))
+                .withRequestBody(WireMock.containing("kube_pod_status_phase"))
+                .willReturn(WireMock.okJson("{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":["
+                        + "{\"metric\":{\"namespace\":\"namespace1\"},\"value\":[1747924558,\"3\"]},"
+                        + "{\"metric\":{\"namespace\":\"namespace2\"},\"value\":[1747924558,\"+Inf\"]},"
+                        + "{\"metric\":{\"namespace\":\"namespace3\"},\"value\":[1747924558,\"5\"]}]}}")));
+        mockFailedDeployments();
+
+        assertThat(monitoringRefresher.refresh(Instant.now()), equalTo(2));
+        assertThat(monitoringDataOf("env-1-namespace"), equalTo(Map.of("Running Pods", "3")));
+        assertThat(monitoringDataOf("env-2-namespaces"), equalTo(Map.of("Running Pods", "5", "Failed Deployments", "1")));
+    }
+
+    @Test
+    void write_monitoring_history_to_db_and_delete_it_with_environment() {
+        mockRunningPods(3, 4, 5);
+        mockFailedDeployments();
+        Instant now = Instant.now();
+        monitoringRefresher.refresh(now);
+
+        monitoringHistoryStore.flush();
+
+        assertThat(historySeriesCount(), equalTo(3L));
+        QuarkusTransaction.requiringNew().run(() ->
+                environmentRepository.findByNameAndCluster("env-1-namespace", CLUSTER_NAME).delete());
+        monitoringHistoryStore.flush();
+        assertThat(historySeriesCount(), equalTo(2L));
+    }
+
+    private long historySeriesCount() {
+        return QuarkusTransaction.requiringNew().call(() -> monitoringHistoryRepository.count("clusterName", CLUSTER_NAME));
+    }
+
+    private Map<String, String> monitoringDataOf(String environmentName) {
+        return QuarkusTransaction.requiringNew().call(() ->
+                Map.copyOf(environmentRepository.findByNameAndCluster(environmentName, CLUSTER_NAME).getMonitoringData()));
+    }
+
+    private void mockRunningPods(int namespace1, int namespace2, int namespace3) {
+        wiremock.register(WireMock.post(WireMock.urlPathEqualTo("/api/v1/query"))
+                .withRequestBody(WireMock.containing("kube_pod_status_phase"))
+                .willReturn(WireMock.okJson("{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":["
+                        + "{\"metric\":{\"namespace\":\"namespace1\"},\"value\":[1747924558,\"" + namespace1 + "\"]},"
+                        + "{\"metric\":{\"namespace\":\"namespace2\"},\"value\":[1747924558,\"" + namespace2 + "\"]},"
+                        + "{\"metric\":{\"namespace\":\"namespace3\"},\"value\":[1747924558,\"" + namespace3 + "\"]}]}}")));
+    }
+
+    private void mockFailedDeployments() {
+        wiremock.register(WireMock.post(WireMock.urlPathEqualTo("/api/v1/query"))
+                .withRequestBody(WireMock.containing("kube_deployment_status_replicas_unavailable"))
+                .willReturn(WireMock.okJson("{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":["
+                        + "{\"metric\":{\"namespace\":\"namespace3\"},\"value\":[1747924558,\"1\"]}]}}")));
+    }
+}
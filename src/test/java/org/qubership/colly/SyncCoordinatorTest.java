@@ -0,0 +1,88 @@
+package org.qubership.colly;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.qubership.colly.dto.SyncStatus;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class SyncCoordinatorTest {
+
+    @Inject
+    SyncCoordinator syncCoordinator;
+
+    @InjectMock
+    CollyStorage collyStorage;
+
+    @Test
+    void coalesce_triggers_received_during_active_run_into_one_follow_up_run() throws InterruptedException {
+        CountDownLatch firstRunStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstRun = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            SyncRun syncRun = invocation.getArgument(0);
+            syncRun.clustersScheduled(List.of("cluster"));
+            firstRunStarted.countDown();
+            assertTrue(releaseFirstRun.await(10, TimeUnit.SECONDS));
+            return null;
+        }).doNothing().when(collyStorage).executeTask(any(SyncRun.class));
+
+        assertThat(syncCoordinator.trigger("manual"), is(true));
+        assertTrue(firstRunStarted.await(10, TimeUnit.SECONDS));
+        assertThat(syncCoordinator.trigger("manual"), is(false));
+        assertThat(syncCoordinator.trigger("schedule"), is(false));
+
+        SyncStatus status = syncCoordinator.getStatus();
+        assertThat(status.running(), is(true));
+        assertThat(status.followUpRunPending(), is(true));
+        assertThat(status.currentRun().clusters().getFirst().state(), equalTo("QUEUED"));
+
+        releaseFirstRun.countDown();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (syncCoordinator.getStatus().running()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Synchronization is not completed in 10 seconds");
+            Thread.sleep(20);
+        }
+
+        verify(collyStorage, times(2)).executeTask(any(SyncRun.class));
+        assertThat(syncCoordinator.getStatus().lastRun().trigger(), equalTo("manual"));
+        assertThat(syncCoordinator.getStatus().followUpRunPending(), is(false));
+    }
+
+    @Test
+    void keep_last_run_with_clusters_when_nothing_is_due() throws InterruptedException {
+        doAnswer(invocation -> {
+            SyncRun syncRun = invocation.getArgument(0);
+            syncRun.clustersScheduled(List.of("cluster"));
+            syncRun.clusterCompleted("cluster", ClusterSyncResult.CHANGED, null);
+            return null;
+        }).doNothing().when(collyStorage).executeTask(any(SyncRun.class));
+
+        assertThat(syncCoordinator.trigger("manual"), is(true));
+        waitForCompletion();
+        assertThat(syncCoordinator.trigger("schedule", false), is(true));
+        waitForCompletion();
+
+        verify(collyStorage, times(2)).executeTask(any(SyncRun.class));
+        assertThat(syncCoordinator.getStatus().lastRun().trigger(), equalTo("manual"));
+        assertThat(syncCoordinator.getStatus().lastRun().clusters().getFirst().name(), equalTo("cluster"));
+    }
+
+    private void waitForCompletion() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (syncCoordinator.getStatus().running()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Synchronization is not completed in 10 seconds");
+            Thread.sleep(20);
+        }
+    }
+}
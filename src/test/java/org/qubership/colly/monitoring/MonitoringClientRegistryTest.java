@@ -0,0 +1,76 @@
+package org.qubership.colly.monitoring;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import io.quarkiverse.wiremock.devservice.ConnectWireMock;
+import io.quarkiverse.wiremock.devservice.WireMockConfigKey;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusTest
+@ConnectWireMock
+class MonitoringClientRegistryTest {
+
+    @Inject
+    MonitoringClientRegistry registry;
+
+    @Inject
+    MonitoringService monitoringService;
+
+    WireMock wiremock;
+
+    @ConfigProperty(name = WireMockConfigKey.PORT)
+    Integer port;
+
+    @BeforeEach
+    void setUp() {
+        registry.retainMonitoringUris(Set.of());
+        wiremock.register(WireMock.post(WireMock.urlPathMatching("/api/v1/query"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":["
+                                + "{\"metric\":{\"namespace\":\"ns-1\"},\"value\":[1747924558,\"7\"]},"
+                                + "{\"metric\":{\"namespace\":\"ns-2\"},\"value\":[1747924558,\"7\"]}]}}")));
+    }
+
+    @Test
+    void reuse_client_of_monitoring_uri_between_synchronizations() {
+        URI monitoringUri = URI.create("http://localhost:" + port);
+        MonitoringClientRegistry.Stats before = registry.stats();
+
+        assertThat(monitoringService.loadClusterMonitoringData(monitoringUri, Map.of("env-1", List.of("ns-1"))).join().get("env-1"), hasEntry("Running Pods", "7"));
+        assertThat(monitoringService.loadClusterMonitoringData(monitoringUri, Map.of("env-2", List.of("ns-2"))).join().get("env-2"), hasEntry("Running Pods", "7"));
+
+        MonitoringClientRegistry.Stats after = registry.stats();
+        assertThat(after.clients(), equalTo(1));
+        assertThat(after.createdClients() - before.createdClients(), equalTo(1L));
+        assertThat(after.reusedClients() - before.reusedClients(), greaterThanOrEqualTo(1L));
+    }
+
+    @Test
+    void close_client_when_monitoring_uri_is_not_used_anymore() {
+        URI oldUri = URI.create("http://localhost:" + port);
+        URI newUri = URI.create("http://127.0.0.1:" + port);
+        MonitoringClient oldClient = registry.getClient(oldUri);
+        assertThat(registry.getClient(oldUri), sameInstance(oldClient));
+        long evictedBefore = registry.stats().evictedClients();
+
+        registry.retainMonitoringUris(Set.of(newUri));
+
+        assertThat(registry.stats().evictedClients() - evictedBefore, equalTo(1L));
+        assertThat(registry.stats().clients(), equalTo(0));
+        assertThat(registry.getClient(oldUri), not(sameInstance(oldClient)));
+        assertThat(monitoringService.loadClusterMonitoringData(newUri, Map.of("env-1", List.of("ns-1"))).join().get("env-1"), hasEntry("Running Pods", "7"));
+    }
+}
@@ -0,0 +1,76 @@
+package org.qubership.colly.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.qubership.colly.monitoring.MonitoringSeries.Point;
+import org.qubership.colly.monitoring.MonitoringSeries.Resolution;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class MonitoringSeriesTest {
+
+    private static final Instant START = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Test
+    void downsample_values_to_averages_of_coarse_resolutions() {
+        MonitoringSeries series = new MonitoringSeries(new int[]{10, 10, 10});
+        for (int minute = 0; minute < 10; minute++) {
+            series.record(START.plusSeconds(minute * 60L), minute);
+        }
+
+        List<Point> raw = series.range(Resolution.RAW, START, START.plusSeconds(3600));
+        List<Point> fiveMinutes = series.range(Resolution.FIVE_MINUTES, START, START.plusSeconds(3600));
+        List<Point> oneHour = series.range(Resolution.ONE_HOUR, START, START.plusSeconds(3600));
+
+        assertThat(raw, hasSize(10));
+        assertThat(fiveMinutes, contains(new Point(START, 2), new Point(START.plusSeconds(300), 7)));
+        assertThat(oneHour, contains(new Point(START, 4.5)));
+    }
+
+    @Test
+    void overwrite_oldest_buckets_when_retention_is_reached() {
+        MonitoringSeries series = new MonitoringSeries(new int[]{3, 1, 1});
+        for (int minute = 0; minute < 5; minute++) {
+            series.record(START.plusSeconds(minute * 60L), minute);
+        }
+
+        List<Point> raw = series.range(Resolution.RAW, START, START.plusSeconds(3600));
+
+        assertThat(raw.stream().map(Point::value).toList(), contains(2.0, 3.0, 4.0));
+    }
+
+    @Test
+    void skip_buckets_without_values() {
+        MonitoringSeries series = new MonitoringSeries(new int[]{5, 1, 1});
+        series.record(START, 1);
+        series.record(START.plusSeconds(120), 3);
+        series.record(START.plusSeconds(600), 10);
+
+        List<Point> raw = series.range(Resolution.RAW, START, START.plusSeconds(3600));
+
+        assertThat(raw, contains(new Point(START.plusSeconds(600), 10)));
+    }
+
+    @Test
+    void keep_newest_buckets_when_series_is_decoded_with_another_capacity() {
+        MonitoringSeries series = new MonitoringSeries(new int[]{10, 10, 10});
+        for (int minute = 0; minute < 6; minute++) {
+            series.record(START.plusSeconds(minute * 60L), minute);
+        }
+        byte[] data = series.encode();
+
+        MonitoringSeries sameCapacity = MonitoringSeries.decode(data, new int[]{10, 10, 10});
+        MonitoringSeries smallerCapacity = MonitoringSeries.decode(data, new int[]{2, 10, 10});
+
+        assertThat(data.length, equalTo(2 + 3 * (20 + 10 * 5)));
+        assertThat(sameCapacity.range(Resolution.RAW, START, START.plusSeconds(3600)),
+                equalTo(series.range(Resolution.RAW, START, START.plusSeconds(3600))));
+        assertThat(smallerCapacity.range(Resolution.RAW, START, START.plusSeconds(3600)).stream().map(Point::value).toList(),
+                contains(4.0, 5.0));
+        assertThat(smallerCapacity.range(Resolution.FIVE_MINUTES, START, START.plusSeconds(3600)),
+                equalTo(series.range(Resolution.FIVE_MINUTES, START, START.plusSeconds(3600))));
+    }
+}
@@ -0,0 +1,101 @@
+package org.qubership.colly.monitoring;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import io.quarkiverse.wiremock.devservice.ConnectWireMock;
+import io.quarkiverse.wiremock.devservice.WireMockConfigKey;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.qubership.colly.CircuitBreakerRegistry;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusTest
+@ConnectWireMock
+@TestProfile(MonitoringServiceTest.QueriesPerEnvironmentProfile.class)
+class MonitoringServiceTest {
+
+    private static final long OPEN_DURATION_MS = 500;
+    private static final String RUNNING_PODS_RESPONSE = "{\"status\":\"success\",\"data\":{\"resultType\":\"vector\",\"result\":[{\"metric\":{},\"value\":[1747924558,\"4\"]}]}}";
+
+    @Inject
+    MonitoringService monitoringService;
+
+    @Inject
+    CircuitBreakerRegistry circuitBreakerRegistry;
+
+    WireMock wiremock;
+
+    @ConfigProperty(name = WireMockConfigKey.PORT)
+    Integer port;
+
+    @BeforeEach
+    void setUp() {
+        wiremock.resetMappings();
+        wiremock.register(WireMock.get(WireMock.urlPathEqualTo("/api/v1/query"))
+                .withQueryParam("query", WireMock.containing("kube_pod_status_phase"))
+                .willReturn(WireMock.okJson(RUNNING_PODS_RESPONSE)));
+    }
+
+    @Test
+    void keep_values_of_successful_queries_when_other_query_fails() {
+        wiremock.register(WireMock.get(WireMock.urlPathEqualTo("/api/v1/query"))
+                .withQueryParam("query", WireMock.containing("kube_deployment_status_replicas_unavailable"))
+                .willReturn(WireMock.serverError()));
+        URI monitoringUri = URI.create("http://localhost:" + port);
+
+        Map<String, Map<String, String>> monitoringData = monitoringService.loadEnvironmentsMonitoringData(monitoringUri, Map.of("env-1", List.of("ns-1"))).join();
+
+        assertThat(monitoringData, equalTo(Map.of("env-1", Map.of("Running Pods", "4"))));
+        assertThat(circuitBreakerRegistry.getState(monitoringUri.toString()), equalTo(CircuitBreakerRegistry.State.CLOSED));
+    }
+
+    @Test
+    void load_all_environments_in_half_open_trial() throws InterruptedException {
+        URI monitoringUri = URI.create("http://localhost:" + port);
+        for (int i = 0; i < 3; i++) {
+            circuitBreakerRegistry.recordFailure(monitoringUri.toString());
+        }
+        assertThat(circuitBreakerRegistry.getState(monitoringUri.toString()), equalTo(CircuitBreakerRegistry.State.OPEN));
+        Thread.sleep(OPEN_DURATION_MS + 100);
+
+        Map<String, Map<String, String>> monitoringData = monitoringService.loadEnvironmentsMonitoringData(monitoringUri,
+                Map.of("env-1", List.of("ns-1"), "env-2", List.of("ns-2"))).join();
+
+        assertThat(monitoringData, equalTo(Map.of("env-1", Map.of("Running Pods", "4"), "env-2", Map.of("Running Pods", "4"))));
+        assertThat(circuitBreakerRegistry.getState(monitoringUri.toString()), equalTo(CircuitBreakerRegistry.State.CLOSED));
+    }
+
+    @Test
+    void omit_query_that_exceeds_time_budget() {
+        wiremock.register(WireMock.get(WireMock.urlPathEqualTo("/api/v1/query"))
+                .withQueryParam("query", WireMock.containing("kube_deployment_status_replicas_unavailable"))
+                .willReturn(WireMock.okJson(RUNNING_PODS_RESPONSE).withFixedDelay(5_000)));
+        URI monitoringUri = URI.create("http://127.0.0.1:" + port);
+
+        long start = System.currentTimeMillis();
+        Map<String, String> monitoringData = monitoringService.loadMonitoringData(monitoringUri, List.of("ns-1")).join();
+        long duration = System.currentTimeMillis() - start;
+
+        assertThat(monitoringData, equalTo(Map.of("Running Pods", "4")));
+        assertThat(duration, lessThan(3_000L));
+    }
+
+    public static class QueriesPerEnvironmentProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("colly.monitoring-batch.enabled", "false",
+                    "colly.monitoring-client.time-budget", "1s",
+                    "colly.circuit-breaker.open-duration", OPEN_DURATION_MS + "ms");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.qubership.colly.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class QueryLimiterTest {
+
+    private final List<CompletableFuture<String>> startedQueries = new ArrayList<>();
+
+    @Test
+    void queue_queries_over_the_limit_until_running_ones_are_completed() {
+        QueryLimiter queryLimiter = new QueryLimiter(2);
+
+        CompletableFuture<String> first = queryLimiter.submit(query());
+        CompletableFuture<String> second = queryLimiter.submit(query());
+        CompletableFuture<String> third = queryLimiter.submit(query());
+
+        assertThat(startedQueries, hasSize(2));
+        assertThat(queryLimiter.queuedQueries(), equalTo(1));
+
+        startedQueries.getFirst().complete("first");
+
+        assertThat(first.join(), equalTo("first"));
+        assertThat(startedQueries, hasSize(3));
+        assertThat(queryLimiter.queuedQueries(), equalTo(0));
+        startedQueries.get(1).complete("second");
+        startedQueries.get(2).complete("third");
+        assertThat(second.join(), equalTo("second"));
+        assertThat(third.join(), equalTo("third"));
+    }
+
+    @Test
+    void skip_queued_query_that_is_completed_by_caller() {
+        QueryLimiter queryLimiter = new QueryLimiter(1);
+
+        queryLimiter.submit(query());
+        CompletableFuture<String> timedOut = queryLimiter.submit(query());
+        CompletableFuture<String> waiting = queryLimiter.submit(query());
+        timedOut.cancel(true);
+        startedQueries.getFirst().complete("first");
+
+        assertThat(startedQueries, hasSize(2));
+        startedQueries.get(1).complete("waiting");
+        assertThat(waiting.join(), equalTo("waiting"));
+    }
+
+    @Test
+    void release_permit_when_running_query_is_completed_by_caller() {
+        QueryLimiter queryLimiter = new QueryLimiter(1);
+
+        CompletableFuture<String> timedOut = queryLimiter.submit(query());
+        queryLimiter.submit(query());
+        timedOut.cancel(true);
+
+        assertThat(startedQueries.getFirst().isCancelled(), is(true));
+        assertThat(startedQueries, hasSize(2));
+    }
+
+    private Supplier<CompletionStage<String>> query() {
+        return () -> {
+            CompletableFuture<String> execution = new CompletableFuture<>();
+            startedQueries.add(execution);
+            return execution;
+        };
+    }
+}